@@ -1,7 +1,6 @@
 package com.ruoyi.web.controller.monitor;
 
 import cn.dev33.satoken.annotation.SaCheckPermission;
-import cn.hutool.core.collection.CollUtil;
 import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.constant.CacheNames;
 import com.ruoyi.common.core.domain.R;
@@ -9,14 +8,18 @@ import com.ruoyi.common.utils.JsonUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.redis.CacheUtils;
 import com.ruoyi.common.utils.redis.RedisUtils;
+import com.ruoyi.framework.manager.PlusSpringCacheManager;
 import com.ruoyi.system.domain.SysCache;
+import com.ruoyi.system.domain.vo.SysCacheClearVo;
+import com.ruoyi.system.domain.vo.SysCacheKeyPageVo;
+import com.ruoyi.system.service.ISysCacheService;
 import lombok.RequiredArgsConstructor;
 import org.redisson.spring.data.connection.RedissonConnectionFactory;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 缓存监控
@@ -29,13 +32,20 @@ import java.util.stream.Collectors;
 public class CacheController {
 
     private final RedissonConnectionFactory connectionFactory;
+    private final CacheManager cacheManager;
+    private final ISysCacheService cacheService;
+
+    /**
+     * key 列表单页最大数量
+     */
+    private static final int MAX_PAGE_SIZE = 1000;
 
     private final static List<SysCache> CACHES = new ArrayList<>();
 
     static {
         CACHES.add(new SysCache(CacheConstants.ONLINE_TOKEN_KEY, "在线用户"));
-        CACHES.add(new SysCache(CacheNames.SYS_CONFIG, "配置信息"));
-        CACHES.add(new SysCache(CacheNames.SYS_DICT, "数据字典"));
+        CACHES.add(new SysCache(StringUtils.substringBefore(CacheNames.SYS_CONFIG, "#"), "配置信息"));
+        CACHES.add(new SysCache(StringUtils.substringBefore(CacheNames.SYS_DICT, "#"), "数据字典"));
         CACHES.add(new SysCache(CacheConstants.CAPTCHA_CODE_KEY, "验证码"));
         CACHES.add(new SysCache(CacheConstants.REPEAT_SUBMIT_KEY, "防重提交"));
         CACHES.add(new SysCache(CacheConstants.RATE_LIMIT_KEY, "限流处理"));
@@ -54,7 +64,7 @@ public class CacheController {
         Properties commandStats = connection.info("commandstats");
         Long dbSize = connection.dbSize();
 
-        Map<String, Object> result = new HashMap<>(3);
+        Map<String, Object> result = new HashMap<>(4);
         result.put("info", info);
         result.put("dbSize", dbSize);
 
@@ -69,36 +79,45 @@ public class CacheController {
             });
         }
         result.put("commandStats", pieList);
+        // 各缓存组命中率、加载耗时等统计
+        if (cacheManager instanceof PlusSpringCacheManager) {
+            result.put("cacheStats", ((PlusSpringCacheManager) cacheManager).getStatistics());
+        }
         return R.ok(result);
     }
 
     /**
-     * 获取缓存监控缓存名列表
+     * 获取缓存监控缓存名列表 包含 key 数量
      */
     @SaCheckPermission("monitor:cache:list")
     @GetMapping("/getNames")
     public R<List<SysCache>> cache() {
-        return R.ok(CACHES);
+        return R.ok(cacheService.selectCacheCount(CACHES));
     }
 
     /**
-     * 获取缓存监控Key列表
+     * 获取缓存监控Key列表 返回约 {@link #MAX_PAGE_SIZE} 条 更多数据使用分页查询
      *
      * @param cacheName 缓存名
      */
     @SaCheckPermission("monitor:cache:list")
     @GetMapping("/getKeys/{cacheName}")
     public R<Collection<String>> getCacheKeys(@PathVariable String cacheName) {
-        Collection<String> cacheKeys = new HashSet<>(0);
-        if (isCacheNames(cacheName)) {
-            Set<Object> keys = CacheUtils.keys(cacheName);
-            if (CollUtil.isNotEmpty(keys)) {
-                cacheKeys = keys.stream().map(Object::toString).collect(Collectors.toList());
-            }
-        } else {
-            cacheKeys = RedisUtils.keys(cacheName + "*");
-        }
-        return R.ok(cacheKeys);
+        return R.ok(cacheService.selectCacheKeyPage(cacheName, null, MAX_PAGE_SIZE).getKeys());
+    }
+
+    /**
+     * 游标分页获取缓存监控Key列表
+     *
+     * @param cacheName 缓存名
+     * @param cursor    上一页返回的游标 首页为空
+     * @param pageSize  每页数量
+     */
+    @SaCheckPermission("monitor:cache:list")
+    @GetMapping("/pageKeys/{cacheName}")
+    public R<SysCacheKeyPageVo> pageCacheKeys(@PathVariable String cacheName, String cursor,
+                                              @RequestParam(defaultValue = "100") Integer pageSize) {
+        return R.ok(cacheService.selectCacheKeyPage(cacheName, cursor, Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE)));
     }
 
     /**
@@ -121,19 +140,18 @@ public class CacheController {
     }
 
     /**
-     * 清理缓存监控缓存名
+     * 清理缓存监控缓存名 key 前缀在后台分批清理 返回清理任务
      *
      * @param cacheName 缓存名
      */
     @SaCheckPermission("monitor:cache:list")
     @DeleteMapping("/clearCacheName/{cacheName}")
-    public R<Void> clearCacheName(@PathVariable String cacheName) {
+    public R<SysCacheClearVo> clearCacheName(@PathVariable String cacheName) {
         if (isCacheNames(cacheName)) {
             CacheUtils.clear(cacheName);
-        } else {
-            RedisUtils.deleteKeys(cacheName + "*");
+            return R.ok();
         }
-        return R.ok();
+        return R.ok(cacheService.clearCacheAsync(cacheName + "*"));
     }
 
     /**
@@ -153,13 +171,23 @@ public class CacheController {
     }
 
     /**
-     * 清理全部缓存监控
+     * 清理全部缓存监控 后台分批清理 返回清理任务
      */
     @SaCheckPermission("monitor:cache:list")
     @DeleteMapping("/clearCacheAll")
-    public R<Void> clearCacheAll() {
-        RedisUtils.deleteKeys("*");
-        return R.ok();
+    public R<SysCacheClearVo> clearCacheAll() {
+        return R.ok(cacheService.clearCacheAsync("*"));
+    }
+
+    /**
+     * 查询后台清理任务进度
+     *
+     * @param taskId 任务ID
+     */
+    @SaCheckPermission("monitor:cache:list")
+    @GetMapping("/clearProgress/{taskId}")
+    public R<SysCacheClearVo> clearProgress(@PathVariable String taskId) {
+        return R.ok(cacheService.selectClearTask(taskId));
     }
 
     private boolean isCacheNames(String cacheName) {
@@ -1,6 +1,7 @@
 package com.ruoyi.web.controller.system;
 
 import cn.dev33.satoken.annotation.SaCheckPermission;
+import cn.hutool.core.util.ArrayUtil;
 import com.ruoyi.common.annotation.Log;
 import com.ruoyi.common.core.controller.BaseController;
 import com.ruoyi.common.core.domain.PageQuery;
@@ -21,6 +22,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -195,6 +197,9 @@ public class SysRoleController extends BaseController {
     @Log(title = "角色管理", businessType = BusinessType.GRANT)
     @PutMapping("/authUser/cancelAll")
     public R<Void> cancelAuthUserAll(Long roleId, Long[] userIds) {
+        if (ArrayUtil.isNotEmpty(userIds)) {
+            userService.checkUserDataScope(Arrays.asList(userIds));
+        }
         return toAjax(roleService.deleteAuthUsers(roleId, userIds));
     }
 
@@ -209,6 +214,9 @@ public class SysRoleController extends BaseController {
     @PutMapping("/authUser/selectAll")
     public R<Void> selectAuthUserAll(Long roleId, Long[] userIds) {
         roleService.checkRoleDataScope(roleId);
+        if (ArrayUtil.isNotEmpty(userIds)) {
+            userService.checkUserDataScope(Arrays.asList(userIds));
+        }
         return toAjax(roleService.insertAuthUsers(roleId, userIds));
     }
 
@@ -0,0 +1,87 @@
+package com.ruoyi.test;
+
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.system.manager.DataScopeVerifier;
+import com.ruoyi.system.mapper.SysDeptMapper;
+import com.ruoyi.system.mapper.SysRoleMapper;
+import com.ruoyi.system.mapper.SysUserMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 数据权限批量校验 空id不校验 可见id不完整时抛出异常 超出上限时分批查询
+ *
+ * @author Lion Li
+ */
+@DisplayName("数据权限批量校验")
+public class DataScopeVerifierUnitTest {
+
+    private final SysUserMapper userMapper = Mockito.mock(SysUserMapper.class);
+    private final SysRoleMapper roleMapper = Mockito.mock(SysRoleMapper.class);
+    private final SysDeptMapper deptMapper = Mockito.mock(SysDeptMapper.class);
+    private final DataScopeVerifier verifier = new DataScopeVerifier(userMapper, roleMapper, deptMapper);
+
+    @DisplayName("测试空id不校验")
+    @Test
+    @Tag("local")
+    @Tag("dev")
+    @Tag("prod")
+    public void testNullId() {
+        Assertions.assertDoesNotThrow(() -> verifier.checkUserDataScope(Collections.singletonList(null)));
+        Assertions.assertDoesNotThrow(() -> verifier.checkRoleDataScope(Collections.singletonList(null)));
+        Assertions.assertDoesNotThrow(() -> verifier.checkDeptDataScope(Collections.singletonList(null)));
+        Assertions.assertDoesNotThrow(() -> verifier.checkUserDataScope(Collections.emptyList()));
+        Mockito.verifyNoInteractions(userMapper, roleMapper, deptMapper);
+    }
+
+    @DisplayName("测试可见id不完整")
+    @Test
+    @Tag("local")
+    @Tag("dev")
+    @Tag("prod")
+    public void testSubset() {
+        List<Long> ids = Arrays.asList(1L, 2L);
+        Mockito.when(userMapper.selectUserIdList(Mockito.any())).thenReturn(Collections.singletonList(1L));
+        Mockito.when(roleMapper.selectRoleIdList(Mockito.any())).thenReturn(Collections.singletonList(1L));
+        Mockito.when(deptMapper.selectDeptIdList(Mockito.any())).thenReturn(Collections.singletonList(1L));
+        Assertions.assertThrows(ServiceException.class, () -> verifier.checkUserDataScope(ids));
+        Assertions.assertThrows(ServiceException.class, () -> verifier.checkRoleDataScope(ids));
+        Assertions.assertThrows(ServiceException.class, () -> verifier.checkDeptDataScope(ids));
+    }
+
+    @DisplayName("测试可见id完整")
+    @Test
+    @Tag("local")
+    @Tag("dev")
+    @Tag("prod")
+    public void testAllVisible() {
+        List<Long> ids = Arrays.asList(1L, 2L);
+        Mockito.when(userMapper.selectUserIdList(Mockito.any())).thenReturn(ids);
+        Assertions.assertDoesNotThrow(() -> verifier.checkUserDataScope(ids));
+        Mockito.verify(userMapper, Mockito.times(1)).selectUserIdList(Mockito.any());
+    }
+
+    @DisplayName("测试超出上限分批查询")
+    @Test
+    @Tag("local")
+    @Tag("dev")
+    @Tag("prod")
+    public void testSplit() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= 1001; i++) {
+            ids.add(i);
+        }
+        Mockito.when(userMapper.selectUserIdList(Mockito.any())).thenReturn(ids);
+        Assertions.assertDoesNotThrow(() -> verifier.checkUserDataScope(ids));
+        Mockito.verify(userMapper, Mockito.times(2)).selectUserIdList(Mockito.any());
+    }
+
+}
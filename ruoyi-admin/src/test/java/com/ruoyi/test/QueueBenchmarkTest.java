@@ -0,0 +1,71 @@
+package com.ruoyi.test;
+
+import com.ruoyi.common.utils.redis.QueueUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RBlockingQueue;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟队列入队吞吐量对比
+ * <p>
+ * 需连接 redis 未添加 @Tag 不随打包执行
+ *
+ * @author Lion Li
+ */
+@SpringBootTest
+@DisplayName("延迟队列入队吞吐量对比")
+public class QueueBenchmarkTest {
+
+    private static final String QUEUE_NAME = "benchmark-delayed-queue";
+
+    private static final int ROUNDS = 2000;
+
+    @DisplayName("测试延迟队列入队")
+    @Test
+    public void testDelayedOffer() {
+        RedissonClient client = QueueUtils.getClient();
+        try {
+            // 优化前 每次调用重新创建延迟队列实例
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                RBlockingQueue<Integer> queue = client.getBlockingQueue(QUEUE_NAME);
+                client.getDelayedQueue(queue).offer(i, 1, TimeUnit.HOURS);
+            }
+            print("每次创建实例", start);
+
+            // 缓存实例
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                QueueUtils.addDelayedQueueObject(QUEUE_NAME, i, 1, TimeUnit.HOURS);
+            }
+            print("缓存实例", start);
+
+            // 批量异步入队
+            List<Integer> dataList = new ArrayList<>(ROUNDS);
+            for (int i = 0; i < ROUNDS; i++) {
+                dataList.add(i);
+            }
+            start = System.nanoTime();
+            QueueUtils.addDelayedQueueObjects(QUEUE_NAME, dataList, 1, TimeUnit.HOURS);
+            print("批量入队", start);
+
+            Assertions.assertEquals(ROUNDS * 3, QueueUtils.getDelayedQueue(QUEUE_NAME).size());
+        } finally {
+            QueueUtils.getDelayedQueue(QUEUE_NAME).delete();
+            QueueUtils.destroyDelayedQueue(QUEUE_NAME);
+        }
+    }
+
+    private void print(String name, long start) {
+        long cost = System.nanoTime() - start;
+        System.out.printf("%-12s %10d ops/s %10d ns/op%n", name, ROUNDS * 1_000_000_000L / cost, cost / ROUNDS);
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.ruoyi.test;
+
+import cn.hutool.core.util.IdUtil;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.utils.redis.RateLimiterUtils;
+import com.ruoyi.common.utils.redis.RedisUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * 限流算法对比 突发放行数量与单次耗时
+ * <p>
+ * 每个场景使用新的 key 结果不依赖执行时刻 需连接 redis 未添加 @Tag 不随打包执行
+ *
+ * @author Lion Li
+ */
+@SpringBootTest
+@DisplayName("限流算法对比")
+public class RateLimiterBenchmarkTest {
+
+    private static final int COUNT = 10;
+
+    private static final int TIME = 60;
+
+    private static final int ROUNDS = 1000;
+
+    @DisplayName("测试突发请求放行数量")
+    @Test
+    public void testBurst() {
+        Assertions.assertEquals(COUNT, burst(key -> RateLimiterUtils.tokenBucket(key, COUNT, TIME)));
+        Assertions.assertEquals(COUNT, burst(key -> RateLimiterUtils.slidingWindow(key, COUNT, TIME)));
+        // 漏桶不允许突发 同一时刻仅放行1次
+        Assertions.assertEquals(1, burst(key -> RateLimiterUtils.leakyBucket(key, COUNT, TIME)));
+
+        String key = newKey();
+        List<String> permits = new ArrayList<>();
+        for (int i = 0; i < COUNT * 2; i++) {
+            String permitId = RateLimiterUtils.tryAcquireConcurrency(key, COUNT, TIME);
+            if (permitId != null) {
+                permits.add(permitId);
+            }
+        }
+        Assertions.assertEquals(COUNT, permits.size());
+        RateLimiterUtils.releaseConcurrency(key, permits.get(0));
+        Assertions.assertNotNull(RateLimiterUtils.tryAcquireConcurrency(key, COUNT, TIME));
+        RedisUtils.deleteObject(key);
+    }
+
+    @DisplayName("测试单次限流耗时")
+    @Test
+    public void testCost() {
+        System.out.printf("%-16s %12s%n", "算法", "耗时ns/op");
+        System.out.printf("%-16s %12d%n", "TOKEN_BUCKET", cost(key -> RateLimiterUtils.tokenBucket(key, ROUNDS, TIME)));
+        System.out.printf("%-16s %12d%n", "SLIDING_WINDOW", cost(key -> RateLimiterUtils.slidingWindow(key, ROUNDS, TIME)));
+        System.out.printf("%-16s %12d%n", "LEAKY_BUCKET", cost(key -> RateLimiterUtils.leakyBucket(key, ROUNDS, TIME)));
+        System.out.printf("%-16s %12d%n", "CONCURRENCY", cost(key -> {
+            String permitId = RateLimiterUtils.tryAcquireConcurrency(key, ROUNDS, TIME);
+            RateLimiterUtils.releaseConcurrency(key, permitId);
+            return 0;
+        }));
+    }
+
+    private long burst(ToLongFunction<String> limiter) {
+        String key = newKey();
+        long allowed = 0;
+        for (int i = 0; i < COUNT * 2; i++) {
+            if (limiter.applyAsLong(key) != -1) {
+                allowed++;
+            }
+        }
+        RedisUtils.deleteObject(key);
+        return allowed;
+    }
+
+    private long cost(ToLongFunction<String> limiter) {
+        String key = newKey();
+        for (int i = 0; i < ROUNDS / 10; i++) {
+            limiter.applyAsLong(key);
+        }
+        RedisUtils.deleteObject(key);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            limiter.applyAsLong(key);
+        }
+        long cost = (System.nanoTime() - start) / ROUNDS;
+        RedisUtils.deleteObject(key);
+        return cost;
+    }
+
+    private String newKey() {
+        return CacheConstants.RATE_LIMIT_KEY + "benchmark:" + IdUtil.fastSimpleUUID();
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.ruoyi.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ruoyi.common.core.domain.dto.RoleDTO;
+import com.ruoyi.common.core.domain.dto.UserOnlineDTO;
+import com.ruoyi.common.core.domain.entity.SysDept;
+import com.ruoyi.common.core.domain.entity.SysDictData;
+import com.ruoyi.common.core.domain.model.LoginUser;
+import com.ruoyi.framework.codec.CompatibleJacksonCodec;
+import com.ruoyi.framework.config.JacksonConfig;
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.JsonJacksonCodec;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.*;
+
+/**
+ * redis 编码格式对比 JSON 与 Smile 的体积与编解码耗时
+ * <p>
+ * 未添加 @Tag 不随打包执行 需手动运行
+ *
+ * @author Lion Li
+ */
+@DisplayName("redis 编码格式对比")
+public class RedisCodecBenchmarkTest {
+
+    private static final int WARM_UP = 20000;
+
+    private static final int ROUNDS = 100000;
+
+    @DisplayName("测试 JSON 与 Smile 编码")
+    @Test
+    public void testCodec() throws Exception {
+        JacksonConfig jacksonConfig = new JacksonConfig();
+        Jackson2ObjectMapperBuilder jsonBuilder = new Jackson2ObjectMapperBuilder();
+        jacksonConfig.customizer().customize(jsonBuilder);
+        Jackson2ObjectMapperBuilder smileBuilder = new Jackson2ObjectMapperBuilder();
+        jacksonConfig.customizer().customize(smileBuilder);
+        ObjectMapper jsonMapper = jsonBuilder.build();
+        ObjectMapper smileMapper = smileBuilder.factory(new SmileFactory()).build();
+
+        Map<String, Codec> codecs = new LinkedHashMap<>();
+        codecs.put("JSON", new JsonJacksonCodec(jsonMapper));
+        codecs.put("SMILE", new CompatibleJacksonCodec(jsonMapper, smileMapper, true, true));
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("LoginUser", buildLoginUser());
+        values.put("List<SysDictData>", buildDictList());
+        values.put("UserOnlineDTO", buildUserOnline());
+        values.put("SysDept", buildDept());
+
+        System.out.printf("%-20s %-6s %8s %12s %12s%n", "类型", "编码", "字节数", "编码ns/op", "解码ns/op");
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            for (Map.Entry<String, Codec> codec : codecs.entrySet()) {
+                long[] result = benchmark(codec.getValue(), value.getValue());
+                System.out.printf("%-20s %-6s %8d %12d %12d%n",
+                    value.getKey(), codec.getKey(), result[0], result[1], result[2]);
+            }
+        }
+    }
+
+    /**
+     * @return 字节数 编码耗时 解码耗时
+     */
+    private long[] benchmark(Codec codec, Object value) throws Exception {
+        ByteBuf buf = codec.getValueEncoder().encode(value);
+        int size = buf.readableBytes();
+        Object decoded = codec.getValueDecoder().decode(buf, null);
+        buf.release();
+        Assertions.assertEquals(value.getClass(), decoded.getClass());
+
+        for (int i = 0; i < WARM_UP; i++) {
+            ByteBuf warmUp = codec.getValueEncoder().encode(value);
+            codec.getValueDecoder().decode(warmUp, null);
+            warmUp.release();
+        }
+        List<ByteBuf> bufs = new ArrayList<>(ROUNDS);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bufs.add(codec.getValueEncoder().encode(value));
+        }
+        long encode = (System.nanoTime() - start) / ROUNDS;
+        start = System.nanoTime();
+        for (ByteBuf b : bufs) {
+            codec.getValueDecoder().decode(b, null);
+        }
+        long decode = (System.nanoTime() - start) / ROUNDS;
+        bufs.forEach(ByteBuf::release);
+        return new long[]{size, encode, decode};
+    }
+
+    private LoginUser buildLoginUser() {
+        LoginUser loginUser = new LoginUser();
+        loginUser.setUserId(1L);
+        loginUser.setDeptId(103L);
+        loginUser.setDeptName("研发部门");
+        loginUser.setToken("eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzI1NiJ9");
+        loginUser.setUserType("sys_user");
+        loginUser.setLoginTime(System.currentTimeMillis());
+        loginUser.setExpireTime(System.currentTimeMillis() + 86400000L);
+        loginUser.setIpaddr("127.0.0.1");
+        loginUser.setLoginLocation("内网IP");
+        loginUser.setBrowser("Chrome 11");
+        loginUser.setOs("Windows 10");
+        Set<String> menuPermission = new HashSet<>();
+        for (String module : Arrays.asList("user", "role", "menu", "dept", "post", "dict", "config", "notice", "oss")) {
+            for (String action : Arrays.asList("list", "query", "add", "edit", "remove", "export")) {
+                menuPermission.add("system:" + module + ":" + action);
+            }
+        }
+        loginUser.setMenuPermission(menuPermission);
+        loginUser.setRolePermission(new HashSet<>(Arrays.asList("admin", "common")));
+        loginUser.setUsername("admin");
+        RoleDTO role = new RoleDTO();
+        role.setRoleId(1L);
+        role.setRoleName("超级管理员");
+        role.setRoleKey("admin");
+        role.setDataScope("1");
+        loginUser.setRoles(Collections.singletonList(role));
+        return loginUser;
+    }
+
+    private List<SysDictData> buildDictList() {
+        List<SysDictData> list = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            SysDictData data = new SysDictData();
+            data.setDictCode((long) i);
+            data.setDictSort(i);
+            data.setDictLabel("标签" + i);
+            data.setDictValue(String.valueOf(i));
+            data.setDictType("sys_common_status");
+            data.setListClass(i % 2 == 0 ? "primary" : "danger");
+            data.setIsDefault("N");
+            data.setStatus("0");
+            data.setRemark("状态" + i);
+            list.add(data);
+        }
+        return list;
+    }
+
+    private UserOnlineDTO buildUserOnline() {
+        UserOnlineDTO dto = new UserOnlineDTO();
+        dto.setTokenId("eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzI1NiJ9");
+        dto.setDeptName("研发部门");
+        dto.setUserName("admin");
+        dto.setIpaddr("127.0.0.1");
+        dto.setLoginLocation("内网IP");
+        dto.setBrowser("Chrome 11");
+        dto.setOs("Windows 10");
+        dto.setLoginTime(System.currentTimeMillis());
+        return dto;
+    }
+
+    private SysDept buildDept() {
+        SysDept dept = new SysDept();
+        dept.setDeptId(103L);
+        dept.setParentId(101L);
+        dept.setAncestors("0,100,101");
+        dept.setDeptName("研发部门");
+        dept.setOrderNum(1);
+        dept.setLeader("ruoyi");
+        dept.setPhone("15888888888");
+        dept.setEmail("ry@qq.com");
+        dept.setStatus("0");
+        dept.setDelFlag("0");
+        return dept;
+    }
+
+}
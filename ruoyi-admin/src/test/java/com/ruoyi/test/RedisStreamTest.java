@@ -0,0 +1,67 @@
+package com.ruoyi.test;
+
+import cn.hutool.core.util.IdUtil;
+import com.ruoyi.common.utils.redis.RedisStreamUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.StreamMessageId;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * redis stream 消费组 确认与认领
+ * <p>
+ * 需连接 redis 未添加 @Tag 不随打包执行
+ *
+ * @author Lion Li
+ */
+@SpringBootTest
+@DisplayName("redis stream 消费组测试")
+public class RedisStreamTest {
+
+    private static final String GROUP_NAME = "test-group";
+
+    private static final int COUNT = 100;
+
+    @DisplayName("测试批量读取 确认与认领")
+    @Test
+    public void testReadAckClaim() {
+        String streamName = "test-stream:" + IdUtil.fastSimpleUUID();
+        try {
+            Assertions.assertTrue(RedisStreamUtils.createGroup(streamName, GROUP_NAME));
+            Assertions.assertFalse(RedisStreamUtils.createGroup(streamName, GROUP_NAME));
+            List<Integer> dataList = new ArrayList<>(COUNT);
+            for (int i = 0; i < COUNT; i++) {
+                dataList.add(i);
+            }
+            RedisStreamUtils.publishAll(streamName, dataList, COUNT * 10);
+
+            // 同组两个消费者 消息不重复
+            Map<StreamMessageId, Integer> first = RedisStreamUtils.readGroup(streamName, GROUP_NAME, "c1", COUNT / 2, Duration.ofMillis(100));
+            Map<StreamMessageId, Integer> second = RedisStreamUtils.readGroup(streamName, GROUP_NAME, "c2", COUNT, Duration.ofMillis(100));
+            Assertions.assertEquals(COUNT / 2, first.size());
+            Assertions.assertEquals(COUNT / 2, second.size());
+            Assertions.assertEquals(dataList.subList(0, COUNT / 2), new ArrayList<>(first.values()));
+
+            // c1 确认 c2 未确认 由 c1 认领
+            Assertions.assertEquals(COUNT / 2, RedisStreamUtils.ack(streamName, GROUP_NAME, first.keySet()));
+            List<PendingEntry> pending = RedisStreamUtils.listPending(streamName, GROUP_NAME, COUNT);
+            Assertions.assertEquals(COUNT / 2, pending.size());
+            Map<StreamMessageId, Integer> claimed = RedisStreamUtils.claim(streamName, GROUP_NAME, "c1", pending, 0);
+            Assertions.assertEquals(second, claimed);
+            RedisStreamUtils.ack(streamName, GROUP_NAME, claimed.keySet());
+            Assertions.assertTrue(RedisStreamUtils.listPending(streamName, GROUP_NAME, COUNT).isEmpty());
+            Assertions.assertEquals(1, RedisStreamUtils.removeIdleConsumers(streamName, GROUP_NAME, 0, Collections.singletonList("c2")));
+        } finally {
+            RedisStreamUtils.getClient().getStream(streamName).delete();
+        }
+    }
+
+}
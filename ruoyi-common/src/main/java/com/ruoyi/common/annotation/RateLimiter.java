@@ -1,5 +1,6 @@
 package com.ruoyi.common.annotation;
 
+import com.ruoyi.common.enums.LimitAlgorithm;
 import com.ruoyi.common.enums.LimitType;
 
 import java.lang.annotation.*;
@@ -20,12 +21,12 @@ public @interface RateLimiter {
     String key() default "";
 
     /**
-     * 限流时间,单位秒
+     * 限流时间,单位秒 并发数限流时为许可租约时间
      */
     int time() default 60;
 
     /**
-     * 限流次数
+     * 限流次数 并发数限流时为最大并发数
      */
     int count() default 100;
 
@@ -34,6 +35,17 @@ public @interface RateLimiter {
      */
     LimitType limitType() default LimitType.DEFAULT;
 
+    /**
+     * 限流算法
+     */
+    LimitAlgorithm algorithm() default LimitAlgorithm.TOKEN_BUCKET;
+
+    /**
+     * 是否开启本地预检 本节点令牌已耗尽时直接拒绝 不再访问 redis
+     * 本地令牌只会多于 redis 令牌 不会误拒绝 仅令牌桶算法生效
+     */
+    boolean localCheck() default false;
+
     /**
      * 提示消息 支持国际化 格式为 {code}
      */
@@ -0,0 +1,43 @@
+package com.ruoyi.common.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * redis 队列监听注解
+ * <p>
+ * 标注在 spring bean 的方法上 方法参数为队列元素 批量消费时参数为 List
+ * 元素处理完成后才从处理中列表删除 节点宕机后由其他节点放回队列 保证至少消费一次 需做好幂等
+ *
+ * @author Lion Li
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RedisQueueListener {
+
+    /**
+     * 队列名
+     */
+    String value();
+
+    /**
+     * 消费线程数
+     */
+    int concurrency() default 1;
+
+    /**
+     * 每次拉取的最大数量 大于1时方法参数需为 List
+     */
+    int batchSize() default 1;
+
+    /**
+     * 消费失败重试次数 仍失败则放入死信队列
+     */
+    int maxRetries() default 3;
+
+    /**
+     * 死信队列名 默认为 队列名 + :dlq
+     */
+    String deadLetterQueue() default "";
+
+}
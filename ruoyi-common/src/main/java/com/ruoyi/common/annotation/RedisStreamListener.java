@@ -0,0 +1,54 @@
+package com.ruoyi.common.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * redis stream 消费组监听注解
+ * <p>
+ * 标注在 spring bean 的方法上 方法参数为消息 批量消费时参数为 List
+ * 同一消费组内每条消息只投递给一个消费者 不同消费组各自消费全部消息
+ * 处理成功后确认 失败的消息超过认领时间后重新投递 保证至少消费一次 需做好幂等
+ *
+ * @author Lion Li
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RedisStreamListener {
+
+    /**
+     * stream 名
+     */
+    String value();
+
+    /**
+     * 消费组名
+     */
+    String group() default "default";
+
+    /**
+     * 消费线程数
+     */
+    int concurrency() default 1;
+
+    /**
+     * 每次读取的最大数量 大于1时方法参数需为 List
+     */
+    int batchSize() default 1;
+
+    /**
+     * 失败重试次数 仍失败则放入死信 stream
+     */
+    int maxRetries() default 3;
+
+    /**
+     * 死信 stream 名 默认为 stream 名 + :dlq
+     */
+    String deadLetterStream() default "";
+
+    /**
+     * 未确认消息超过该时间(毫秒)后由其他消费者认领重新处理
+     */
+    long claimIdle() default 60000;
+
+}
@@ -41,6 +41,11 @@ public class RuoYiConfig {
      */
     private boolean cacheLazy;
 
+    /**
+     * 缓存key布隆过滤器开关
+     */
+    private boolean cacheBloomFilter;
+
     /**
      * 获取地址开关
      */
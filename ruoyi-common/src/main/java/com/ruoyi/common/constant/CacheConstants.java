@@ -41,4 +41,34 @@ public interface CacheConstants {
      * 登录账户密码错误次数 redis key
      */
     String PWD_ERR_CNT_KEY = "pwd_err_cnt:";
+
+    /**
+     * 缓存预热版本 redis key
+     */
+    String CACHE_VERSION_KEY = "cache_version:";
+
+    /**
+     * 缓存key布隆过滤器 redis key
+     */
+    String BLOOM_FILTER_KEY = "bloom_filter:";
+
+    /**
+     * 缓存后台清理任务 redis key
+     */
+    String CACHE_CLEAR_TASK_KEY = "cache_clear_task:";
+
+    /**
+     * 本地缓存失效通知 stream key
+     */
+    String NEAR_CACHE_STREAM = "global:near_cache";
+
+    /**
+     * 本地缓存失效通知 stream 最大长度 仅需覆盖断线重连期间的通知
+     */
+    int NEAR_CACHE_STREAM_MAX_LEN = 1000;
+
+    /**
+     * 本地缓存失效通知 表示全部缓存组的缓存名
+     */
+    String NEAR_CACHE_ALL = "*";
 }
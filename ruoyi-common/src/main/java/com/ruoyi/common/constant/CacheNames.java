@@ -3,13 +3,17 @@ package com.ruoyi.common.constant;
 /**
  * 缓存组名称常量
  * <p>
- * key 格式为 cacheNames#ttl#maxIdleTime#maxSize
+ * key 格式为 cacheNames#ttl#maxIdleTime#maxSize#localTtl#localMaxSize#refreshRatio#nullTtl
  * <p>
  * ttl 过期时间 如果设置为0则不过期 默认为0
  * maxIdleTime 最大空闲时间 根据LRU算法清理空闲数据 如果设置为0则不检测 默认为0
  * maxSize 组最大长度 根据LRU算法清理溢出数据 如果设置为0则无限长 默认为0
+ * localTtl 本地缓存过期时间 大于0则启用本地二级缓存 变更时通知各节点清除 默认为0
+ * localMaxSize 本地缓存最大长度 默认为10000
+ * refreshRatio 提前刷新比例 存活时间达到 ttl 的该比例后读取时异步刷新 仅对 sync = true 生效 默认为0不刷新
+ * nullTtl 空值过期时间 大于0则空值单独存储并按该时间过期 默认为0与非空值一致
  * <p>
- * 例子: test#60s、test#0#60s、test#0#1m#1000、test#1h#0#500
+ * 例子: test#60s、test#0#60s、test#0#1m#1000、test#1h#0#500、test#0#0#0#10m、test#30d#0#0#1m#500、test#30d#0#0#0#0#0.8、test#0#0#0#0#0#0#1m
  *
  * @author Lion Li
  */
@@ -23,27 +27,27 @@ public interface CacheNames {
     /**
      * 系统配置
      */
-    String SYS_CONFIG = "sys_config";
+    String SYS_CONFIG = "sys_config#0#0#0#10m";
 
     /**
      * 数据字典
      */
-    String SYS_DICT = "sys_dict";
+    String SYS_DICT = "sys_dict#0#0#0#10m#10000#0#1m";
 
     /**
      * 用户账户
      */
-    String SYS_USER_NAME = "sys_user_name#30d";
+    String SYS_USER_NAME = "sys_user_name#30d#0#0#0#0#0.8";
 
     /**
      * 部门
      */
-    String SYS_DEPT = "sys_dept#30d";
+    String SYS_DEPT = "sys_dept#30d#0#0#10m#10000#0.8";
 
     /**
      * OSS内容
      */
-    String SYS_OSS = "sys_oss#30d";
+    String SYS_OSS = "sys_oss#30d#0#0#0#0#0#1m";
 
     /**
      * OSS配置
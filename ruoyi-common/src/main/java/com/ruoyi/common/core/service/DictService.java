@@ -1,5 +1,7 @@
 package com.ruoyi.common.core.service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -56,6 +58,38 @@ public interface DictService {
      */
     String getDictValue(String dictType, String dictLabel, String separator);
 
+    /**
+     * 批量根据字典类型和字典值获取字典标签
+     *
+     * @param dictType   字典类型
+     * @param dictValues 字典值
+     * @param separator  分隔符
+     * @return 字典标签 与字典值顺序一致
+     */
+    default List<String> getDictLabels(String dictType, List<String> dictValues, String separator) {
+        List<String> labels = new ArrayList<>(dictValues.size());
+        for (String dictValue : dictValues) {
+            labels.add(getDictLabel(dictType, dictValue, separator));
+        }
+        return labels;
+    }
+
+    /**
+     * 批量根据字典类型和字典标签获取字典值
+     *
+     * @param dictType   字典类型
+     * @param dictLabels 字典标签
+     * @param separator  分隔符
+     * @return 字典值 与字典标签顺序一致
+     */
+    default List<String> getDictValues(String dictType, List<String> dictLabels, String separator) {
+        List<String> values = new ArrayList<>(dictLabels.size());
+        for (String dictLabel : dictLabels) {
+            values.add(getDictValue(dictType, dictLabel, separator));
+        }
+        return values;
+    }
+
     /**
      * 获取字典下所有的字典值与标签
      *
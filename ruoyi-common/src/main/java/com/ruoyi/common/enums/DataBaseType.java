@@ -21,20 +21,49 @@ public enum DataBaseType {
     /**
      * Oracle
      */
-    ORACLE("Oracle"),
+    ORACLE("Oracle") {
+        @Override
+        public String findInSet(String var, String column) {
+            // instr(',0,100,101,' , ',100,') <> 0
+            return "instr(','||" + column + "||',' , '," + var + ",') <> 0";
+        }
+    },
 
     /**
      * PostgreSQL
      */
-    POSTGRE_SQL("PostgreSQL"),
+    POSTGRE_SQL("PostgreSQL") {
+        @Override
+        public String findInSet(String var, String column) {
+            // (select position(',100,' in ',0,100,101,')) <> 0
+            return "(select position('," + var + ",' in ','||" + column + "||',')) <> 0";
+        }
+    },
 
     /**
      * SQL Server
      */
-    SQL_SERVER("Microsoft SQL Server");
+    SQL_SERVER("Microsoft SQL Server") {
+        @Override
+        public String findInSet(String var, String column) {
+            // charindex(',100,' , ',0,100,101,') <> 0
+            return "charindex('," + var + ",' , ','+" + column + "+',') <> 0";
+        }
+    };
 
     private final String type;
 
+    /**
+     * 构造 逗号分隔字段包含指定值 的条件片段
+     *
+     * @param var    查找的值
+     * @param column 逗号分隔的字段
+     */
+    public String findInSet(String var, String column) {
+        // find_in_set('100' , '0,100,101')
+        return "find_in_set('" + var + "' , " + column + ") <> 0";
+    }
+
     public static DataBaseType find(String databaseProductName) {
         if (StringUtils.isBlank(databaseProductName)) {
             return null;
@@ -0,0 +1,30 @@
+package com.ruoyi.common.enums;
+
+/**
+ * 限流算法
+ *
+ * @author Lion Li
+ */
+public enum LimitAlgorithm {
+
+    /**
+     * 令牌桶 容量为 count 每 time 秒补满 允许突发
+     */
+    TOKEN_BUCKET,
+
+    /**
+     * 滑动窗口计数 按上一窗口剩余占比加权 避免窗口边界处两倍突发
+     */
+    SLIDING_WINDOW,
+
+    /**
+     * 漏桶 请求按 time / count 的固定间隔通过 不允许突发
+     */
+    LEAKY_BUCKET,
+
+    /**
+     * 并发数 同时执行的请求不超过 count 租约 time 秒后自动释放
+     */
+    CONCURRENCY
+
+}
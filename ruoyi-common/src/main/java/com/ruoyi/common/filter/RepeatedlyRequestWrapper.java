@@ -29,6 +29,13 @@ public class RepeatedlyRequestWrapper extends HttpServletRequestWrapper {
         body = IoUtil.readBytes(request.getInputStream(), false);
     }
 
+    /**
+     * 获取缓存的请求体 仅供读取 不可修改
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
     @Override
     public BufferedReader getReader() throws IOException {
         return new BufferedReader(new InputStreamReader(getInputStream()));
@@ -2,6 +2,8 @@ package com.ruoyi.common.helper;
 
 import cn.hutool.core.convert.Convert;
 import com.baomidou.dynamic.datasource.DynamicRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ruoyi.common.enums.DataBaseType;
 import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.spring.SpringUtils;
@@ -12,6 +14,7 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.*;
 
 /**
  * 数据库助手
@@ -23,15 +26,51 @@ public class DataBaseHelper {
 
     private static final DynamicRoutingDataSource DS = SpringUtils.getBean(DynamicRoutingDataSource.class);
 
+    /**
+     * 数据源对应的数据库类型
+     * <p>
+     * 以数据源实例(弱引用 按引用比较)为key 运行时新增或替换的数据源为新实例 会重新识别
+     * 识别新实例时清理已从动态数据源移除的实例 未清理的随实例回收自动失效
+     */
+    private static final Cache<DataSource, Optional<DataBaseType>> TYPE_CACHE = Caffeine.newBuilder()
+        .weakKeys()
+        .build();
+
     /**
      * 获取当前数据库类型
      */
     public static DataBaseType getDataBaseType() {
         DataSource dataSource = DS.determineDataSource();
+        Optional<DataBaseType> dataBaseType = TYPE_CACHE.getIfPresent(dataSource);
+        if (dataBaseType == null) {
+            evictRemoved();
+            dataBaseType = TYPE_CACHE.get(dataSource, DataBaseHelper::detectDataBaseType);
+        }
+        return dataBaseType.orElse(null);
+    }
+
+    /**
+     * 获取当前数据库方言 未识别的数据库按 MySQL 处理
+     */
+    public static DataBaseType getDialect() {
+        DataBaseType dataBaseType = getDataBaseType();
+        return dataBaseType == null ? DataBaseType.MY_SQL : dataBaseType;
+    }
+
+    /**
+     * 清理已从动态数据源移除的数据源
+     */
+    private static void evictRemoved() {
+        Set<DataSource> current = Collections.newSetFromMap(new IdentityHashMap<>());
+        current.addAll(DS.getDataSources().values());
+        TYPE_CACHE.asMap().keySet().removeIf(dataSource -> !current.contains(dataSource));
+    }
+
+    private static Optional<DataBaseType> detectDataBaseType(DataSource dataSource) {
         try (Connection conn = dataSource.getConnection()) {
             DatabaseMetaData metaData = conn.getMetaData();
             String databaseProductName = metaData.getDatabaseProductName();
-            return DataBaseType.find(databaseProductName);
+            return Optional.ofNullable(DataBaseType.find(databaseProductName));
         } catch (SQLException e) {
             throw new ServiceException(e.getMessage());
         }
@@ -54,19 +93,6 @@ public class DataBaseHelper {
     }
 
     public static String findInSet(Object var1, String var2) {
-        DataBaseType dataBasyType = getDataBaseType();
-        String var = Convert.toStr(var1);
-        if (dataBasyType == DataBaseType.SQL_SERVER) {
-            // charindex(',100,' , ',0,100,101,') <> 0
-            return "charindex('," + var + ",' , ','+" + var2 + "+',') <> 0";
-        } else if (dataBasyType == DataBaseType.POSTGRE_SQL) {
-            // (select position(',100,' in ',0,100,101,')) <> 0
-            return "(select position('," + var + ",' in ','||" + var2 + "||',')) <> 0";
-        } else if (dataBasyType == DataBaseType.ORACLE) {
-            // instr(',0,100,101,' , ',100,') <> 0
-            return "instr(','||" + var2 + "||',' , '," + var + ",') <> 0";
-        }
-        // find_in_set('100' , '0,100,101')
-        return "find_in_set('" + var + "' , " + var2 + ") <> 0";
+        return getDialect().findInSet(Convert.toStr(var1), var2);
     }
 }
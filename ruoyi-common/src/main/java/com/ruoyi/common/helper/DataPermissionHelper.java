@@ -5,8 +5,11 @@ import cn.dev33.satoken.context.model.SaStorage;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.plugins.IgnoreStrategy;
 import com.baomidou.mybatisplus.core.plugins.InterceptorIgnoreHelper;
+import com.ruoyi.common.utils.redis.RedisUtils;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +27,11 @@ public class DataPermissionHelper {
 
     private static final String DATA_PERMISSION_KEY = "data:permission";
 
+    /**
+     * 数据权限变更通知 通道key
+     */
+    public static final String DATA_PERMISSION_REFRESH_TOPIC = "global:data_permission:refresh";
+
     public static <T> T getVariable(String key) {
         Map<String, Object> context = getContext();
         return (T) context.get(key);
@@ -90,4 +98,22 @@ public class DataPermissionHelper {
         }
     }
 
+    /**
+     * 通知所有节点清空数据权限条件缓存
+     * <p>
+     * 角色、角色部门关联、部门变更后调用 存在事务时于事务提交后发送
+     */
+    public static void refreshCache() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    RedisUtils.publish(DATA_PERMISSION_REFRESH_TOPIC, String.valueOf(System.currentTimeMillis()));
+                }
+            });
+        } else {
+            RedisUtils.publish(DATA_PERMISSION_REFRESH_TOPIC, String.valueOf(System.currentTimeMillis()));
+        }
+    }
+
 }
@@ -0,0 +1,39 @@
+package com.ruoyi.common.utils.redis;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 支持批量操作的缓存
+ * <p>
+ * 单次往返完成多个 key 的读取、写入、删除
+ *
+ * @author Lion Li
+ */
+public interface BatchCache extends Cache {
+
+    /**
+     * 批量获取缓存值
+     *
+     * @param keys 缓存key
+     * @return 命中的 key 与 缓存值(缓存的 null 值同样返回)
+     */
+    Map<Object, ValueWrapper> getAll(Collection<?> keys);
+
+    /**
+     * 批量保存缓存值
+     *
+     * @param map key 与 缓存值
+     */
+    void putAll(Map<?, ?> map);
+
+    /**
+     * 批量删除缓存值
+     *
+     * @param keys 缓存key
+     */
+    void evictAll(Collection<?> keys);
+
+}
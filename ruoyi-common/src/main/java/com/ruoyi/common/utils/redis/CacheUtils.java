@@ -6,8 +6,13 @@ import lombok.NoArgsConstructor;
 import org.redisson.api.RMap;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Set;
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * 缓存操作工具类 {@link }
@@ -42,6 +47,21 @@ public class CacheUtils {
         return wrapper != null ? (T) wrapper.get() : null;
     }
 
+    /**
+     * 绕过本地缓存 直接读取 redis 中的缓存值
+     *
+     * @param cacheNames 缓存组名称
+     * @param key        缓存key
+     */
+    public static <T> T getRemote(String cacheNames, Object key) {
+        Object nativeCache = CACHE_MANAGER.getCache(cacheNames).getNativeCache();
+        if (!(nativeCache instanceof RMap)) {
+            return get(cacheNames, key);
+        }
+        Object value = ((RMap<Object, Object>) nativeCache).get(key);
+        return value instanceof NullValue ? null : (T) value;
+    }
+
     /**
      * 保存缓存值
      *
@@ -72,4 +92,138 @@ public class CacheUtils {
         CACHE_MANAGER.getCache(cacheNames).clear();
     }
 
+    /**
+     * 批量获取缓存值(单次往返)
+     *
+     * @param cacheNames 缓存组名称
+     * @param keys       缓存key
+     * @return 命中且不为空的 key 与 缓存值
+     */
+    public static <K, V> Map<K, V> getAll(String cacheNames, Collection<K> keys) {
+        Map<K, V> result = new LinkedHashMap<>();
+        getAllWrapper(getTargetCache(cacheNames), keys).forEach((key, wrapper) -> {
+            if (wrapper.get() != null) {
+                result.put((K) key, (V) wrapper.get());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 批量获取缓存值 未命中的 key 通过 loader 一次加载并批量写回
+     * <p>
+     * loader 未返回的 key 以空值写入缓存 防止缓存穿透
+     *
+     * @param cacheNames 缓存组名称
+     * @param keys       缓存key
+     * @param loader     未命中 key 的批量加载
+     * @return 不为空的 key 与 缓存值 按 keys 顺序
+     */
+    public static <K, V> Map<K, V> getAll(String cacheNames, Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        Cache cache = getTargetCache(cacheNames);
+        Set<K> distinctKeys = new LinkedHashSet<>(keys);
+        Map<Object, Cache.ValueWrapper> cached = getAllWrapper(cache, distinctKeys);
+        List<K> missKeys = new ArrayList<>();
+        for (K key : distinctKeys) {
+            if (!cached.containsKey(key)) {
+                missKeys.add(key);
+            }
+        }
+        Map<K, V> loaded = Collections.emptyMap();
+        if (!missKeys.isEmpty()) {
+            loaded = loader.apply(missKeys);
+            Map<K, V> putMap = new HashMap<>(missKeys.size());
+            for (K key : missKeys) {
+                putMap.put(key, loaded.get(key));
+            }
+            putAll(cacheNames, putMap);
+        }
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : distinctKeys) {
+            Cache.ValueWrapper wrapper = cached.get(key);
+            V value = wrapper != null ? (V) wrapper.get() : loaded.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量保存缓存值(单次往返) 存在事务时于事务提交后执行
+     *
+     * @param cacheNames 缓存组名称
+     * @param map        key 与 缓存值
+     */
+    public static void putAll(String cacheNames, Map<?, ?> map) {
+        Cache cache = getTargetCache(cacheNames);
+        afterCommit(cacheNames, () -> {
+            if (cache instanceof BatchCache) {
+                ((BatchCache) cache).putAll(map);
+            } else {
+                map.forEach(cache::put);
+            }
+        });
+    }
+
+    /**
+     * 批量删除缓存值(单次往返) 存在事务时于事务提交后执行
+     *
+     * @param cacheNames 缓存组名称
+     * @param keys       缓存key
+     */
+    public static void evictAll(String cacheNames, Collection<?> keys) {
+        Cache cache = getTargetCache(cacheNames);
+        afterCommit(cacheNames, () -> {
+            if (cache instanceof BatchCache) {
+                ((BatchCache) cache).evictAll(keys);
+            } else {
+                keys.forEach(cache::evict);
+            }
+        });
+    }
+
+    private static Map<Object, Cache.ValueWrapper> getAllWrapper(Cache cache, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (cache instanceof BatchCache) {
+            return ((BatchCache) cache).getAll(keys);
+        }
+        Map<Object, Cache.ValueWrapper> result = new HashMap<>(keys.size());
+        for (Object key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null) {
+                result.put(key, wrapper);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取被事务装饰的实际缓存
+     */
+    private static Cache getTargetCache(String cacheNames) {
+        Cache cache = CACHE_MANAGER.getCache(cacheNames);
+        if (cache instanceof TransactionAwareCacheDecorator) {
+            return ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        }
+        return cache;
+    }
+
+    private static void afterCommit(String cacheNames, Runnable runnable) {
+        // 与事务装饰器保持一致 写操作于事务提交后执行
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+            && CACHE_MANAGER.getCache(cacheNames) instanceof TransactionAwareCacheDecorator) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+
 }
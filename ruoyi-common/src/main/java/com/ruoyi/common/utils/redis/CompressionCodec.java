@@ -0,0 +1,272 @@
+package com.ruoyi.common.utils.redis;
+
+import cn.hutool.core.collection.CollUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import lombok.Getter;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 大对象压缩编解码器
+ * <p>
+ * 包装原编解码器 编码后超过阈值的值使用 Deflate 压缩 并以 {@link #COMPRESSED} 字节开头标记
+ * 未超过阈值或压缩后未变小的值保持原样 与未开启压缩时的数据格式一致
+ * <p>
+ * 作为全局编解码器时仅解压 不压缩 通过 {@link #getCodec(String)} 获取
+ * 指定缓存组名称或 key 前缀对应的压缩编解码器 map 的 key 不压缩
+ *
+ * @author Lion Li
+ */
+public class CompressionCodec extends BaseCodec {
+
+    /**
+     * 压缩标记 JSON 与 Smile 编码均不会以该字节开头
+     */
+    private static final byte COMPRESSED = 0x00;
+
+    private final Codec innerCodec;
+
+    /**
+     * 压缩阈值(字节)
+     */
+    private final int threshold;
+
+    /**
+     * 压缩级别
+     */
+    private final int level;
+
+    /**
+     * 启用压缩的缓存组名称或 key 前缀
+     */
+    private final List<String> names;
+
+    /**
+     * 是否压缩写入
+     */
+    private final boolean compress;
+
+    /**
+     * 压缩编解码器 仅全局编解码器持有
+     */
+    private final CompressionCodec compressCodec;
+
+    @Getter
+    private final Stats stats;
+
+    private final Encoder encoder = this::encode;
+
+    private final Decoder<Object> decoder = this::decode;
+
+    /**
+     * @param innerCodec 原编解码器
+     * @param threshold  压缩阈值(字节)
+     * @param level      压缩级别 1-9
+     * @param names      启用压缩的缓存组名称或 key 前缀
+     */
+    public CompressionCodec(Codec innerCodec, int threshold, int level, Collection<String> names) {
+        this.innerCodec = innerCodec;
+        this.threshold = threshold;
+        this.level = level;
+        this.names = CollUtil.isEmpty(names) ? new ArrayList<>() : new ArrayList<>(names);
+        this.compress = false;
+        this.stats = new Stats();
+        this.compressCodec = new CompressionCodec(this);
+    }
+
+    /**
+     * redisson 按 ClassLoader 复制编解码器时使用 压缩编解码器复制后仍为压缩编解码器
+     */
+    public CompressionCodec(ClassLoader classLoader, CompressionCodec codec) {
+        this.innerCodec = copy(classLoader, codec.innerCodec);
+        this.threshold = codec.threshold;
+        this.level = codec.level;
+        this.names = codec.names;
+        this.compress = codec.compress;
+        this.stats = codec.stats;
+        this.compressCodec = codec.compress ? this : new CompressionCodec(this);
+    }
+
+    private CompressionCodec(CompressionCodec codec) {
+        this.innerCodec = codec.innerCodec;
+        this.threshold = codec.threshold;
+        this.level = codec.level;
+        this.names = codec.names;
+        this.compress = true;
+        this.stats = codec.stats;
+        this.compressCodec = this;
+    }
+
+    /**
+     * 获取缓存组或 key 对应的编解码器
+     *
+     * @param name 缓存组名称或 key
+     * @return 匹配时返回压缩编解码器 否则返回当前编解码器
+     */
+    public CompressionCodec getCodec(String name) {
+        if (name != null) {
+            for (String prefix : names) {
+                if (name.startsWith(prefix)) {
+                    return compressCodec;
+                }
+            }
+        }
+        return this;
+    }
+
+    private ByteBuf encode(Object in) throws IOException {
+        ByteBuf buf = innerCodec.getValueEncoder().encode(in);
+        int index = buf.readerIndex();
+        int size = buf.readableBytes();
+        if (!compress || size < threshold) {
+            return buf;
+        }
+        long start = System.nanoTime();
+        ByteBuf out = ByteBufAllocator.DEFAULT.buffer(size / 2 + 16);
+        Deflater deflater = new Deflater(level);
+        try {
+            out.writeByte(COMPRESSED);
+            try (OutputStream os = new DeflaterOutputStream(new ByteBufOutputStream(out), deflater)) {
+                buf.readBytes(os, size);
+            }
+            if (out.readableBytes() >= size) {
+                // 压缩后未变小 保持原样
+                out.release();
+                buf.readerIndex(index);
+                return buf;
+            }
+            buf.release();
+            stats.record(size, out.readableBytes(), System.nanoTime() - start);
+            return out;
+        } catch (IOException e) {
+            out.release();
+            buf.release();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private Object decode(ByteBuf buf, State state) throws IOException {
+        if (!buf.isReadable() || buf.getByte(buf.readerIndex()) != COMPRESSED) {
+            return innerCodec.getValueDecoder().decode(buf, state);
+        }
+        long start = System.nanoTime();
+        buf.skipBytes(1);
+        ByteBuf out = ByteBufAllocator.DEFAULT.buffer(buf.readableBytes() * 3);
+        try {
+            try (InputStream is = new InflaterInputStream(new ByteBufInputStream(buf))) {
+                byte[] bytes = new byte[4096];
+                int len;
+                while ((len = is.read(bytes)) != -1) {
+                    out.writeBytes(bytes, 0, len);
+                }
+            }
+            stats.recordDecompress(System.nanoTime() - start);
+            return innerCodec.getValueDecoder().decode(out, state);
+        } finally {
+            out.release();
+        }
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return innerCodec.getMapKeyDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return innerCodec.getMapKeyEncoder();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return innerCodec.getClassLoader();
+    }
+
+    /**
+     * 压缩统计
+     */
+    public static class Stats {
+
+        private final LongAdder compressCount = new LongAdder();
+        private final LongAdder compressNanos = new LongAdder();
+        private final LongAdder rawBytes = new LongAdder();
+        private final LongAdder compressedBytes = new LongAdder();
+        private final LongAdder decompressCount = new LongAdder();
+        private final LongAdder decompressNanos = new LongAdder();
+
+        private void record(long raw, long compressed, long nanos) {
+            compressCount.increment();
+            compressNanos.add(nanos);
+            rawBytes.add(raw);
+            compressedBytes.add(compressed);
+        }
+
+        private void recordDecompress(long nanos) {
+            decompressCount.increment();
+            decompressNanos.add(nanos);
+        }
+
+        public long getCompressCount() {
+            return compressCount.sum();
+        }
+
+        public long getCompressNanos() {
+            return compressNanos.sum();
+        }
+
+        public long getRawBytes() {
+            return rawBytes.sum();
+        }
+
+        public long getCompressedBytes() {
+            return compressedBytes.sum();
+        }
+
+        public long getDecompressCount() {
+            return decompressCount.sum();
+        }
+
+        public long getDecompressNanos() {
+            return decompressNanos.sum();
+        }
+
+        /**
+         * 压缩率 压缩后大小 / 原大小
+         */
+        public double getRatio() {
+            long raw = getRawBytes();
+            return raw == 0 ? 1 : (double) getCompressedBytes() / raw;
+        }
+
+    }
+
+}
@@ -0,0 +1,253 @@
+package com.ruoyi.common.utils.redis;
+
+import cn.hutool.core.collection.CollUtil;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.spring.SpringUtils;
+import io.netty.buffer.ByteBuf;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBitSetAsync;
+import org.redisson.api.RBloomFilter;
+import org.redisson.misc.Hash;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 缓存key布隆过滤器
+ * <p>
+ * 记录缓存组内全部存在的 key 缓存未命中且 key 一定不存在时 直接返回不存在时的值 不再查询数据库
+ * 过滤器只增不减 已删除的 key 仍判定为可能存在 由空值缓存兜底
+ * <p>
+ * 本节点完成初始化前不做过滤 初始化时按批次通过 pipeline 写入 key
+ * 事务内新增的 key 于事务提交后写入 回滚的 key 不会进入过滤器
+ * 过滤器被删除时(如清理全部缓存) 停止过滤并在后台重新初始化
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class KeyBloomFilter {
+
+    private static final Map<String, KeyBloomFilter> FILTERS = new ConcurrentHashMap<>();
+
+    /**
+     * 初始化时每批写入的 key 数量
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    private final String name;
+
+    private final RBloomFilter<String> filter;
+
+    private final Supplier<Collection<?>> keysLoader;
+
+    private final long expectedInsertions;
+
+    private final double falseProbability;
+
+    /**
+     * key 不存在时返回的值
+     */
+    @Getter
+    private final Object absentValue;
+
+    /**
+     * 是否已写入全部已存在的 key 写入完成前仅记录新增 key 不做过滤
+     */
+    private volatile boolean ready;
+
+    /**
+     * 是否正在初始化
+     */
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private KeyBloomFilter(String name, RBloomFilter<String> filter, Supplier<Collection<?>> keysLoader,
+                           long expectedInsertions, double falseProbability, Object absentValue) {
+        this.name = name;
+        this.filter = filter;
+        this.keysLoader = keysLoader;
+        this.expectedInsertions = expectedInsertions;
+        this.falseProbability = falseProbability;
+        this.absentValue = absentValue;
+    }
+
+    /**
+     * 初始化缓存组过滤器 并写入全部已存在的 key
+     *
+     * @param cacheNames         缓存组名称
+     * @param keysLoader         查询已存在的 key
+     * @param expectedInsertions 预计 key 数量
+     * @param falseProbability   误判率
+     * @param absentValue        key 不存在时返回的值
+     */
+    public static void init(String cacheNames, Supplier<Collection<?>> keysLoader, long expectedInsertions,
+                            double falseProbability, Object absentValue) {
+        String name = StringUtils.substringBefore(cacheNames, "#");
+        RBloomFilter<String> filter = RedisUtils.getClient().getBloomFilter(CacheConstants.BLOOM_FILTER_KEY + name);
+        // 先登记 查询期间新增的 key 同样写入
+        KeyBloomFilter keyFilter = new KeyBloomFilter(name, filter, keysLoader, expectedInsertions, falseProbability, absentValue);
+        FILTERS.put(name, keyFilter);
+        keyFilter.loading.set(true);
+        keyFilter.load();
+    }
+
+    /**
+     * 获取已初始化完成的过滤器
+     *
+     * @param cacheNames 缓存组名称
+     * @return 过滤器 未初始化完成为 null
+     */
+    public static KeyBloomFilter getFilter(String cacheNames) {
+        KeyBloomFilter keyFilter = FILTERS.get(StringUtils.substringBefore(cacheNames, "#"));
+        return keyFilter != null && keyFilter.ready ? keyFilter : null;
+    }
+
+    /**
+     * 新增 key 未初始化时忽略
+     *
+     * @param cacheNames 缓存组名称
+     * @param key        缓存key
+     */
+    public static void add(String cacheNames, Object key) {
+        KeyBloomFilter keyFilter = FILTERS.get(StringUtils.substringBefore(cacheNames, "#"));
+        if (keyFilter == null || key == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keyFilter.add(key);
+                }
+            });
+        } else {
+            keyFilter.add(key);
+        }
+    }
+
+    /**
+     * key 是否可能存在 异常时视为存在
+     *
+     * @param key 缓存key
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(Object key) {
+        try {
+            return filter.contains(String.valueOf(key));
+        } catch (Exception e) {
+            log.warn("布隆过滤器查询失败 => {}:{}", name, key, e);
+            reloadIfMissing();
+            return true;
+        }
+    }
+
+    private void add(Object key) {
+        try {
+            filter.add(String.valueOf(key));
+        } catch (Exception e) {
+            log.error("布隆过滤器新增 key 失败 => {}:{}", name, key, e);
+            reloadIfMissing();
+        }
+    }
+
+    /**
+     * 写入全部已存在的 key 调用前需已设置 loading
+     */
+    private void load() {
+        try {
+            filter.tryInit(expectedInsertions, falseProbability);
+            Collection<?> keys = keysLoader.get();
+            for (List<?> part : CollUtil.split(keys, BATCH_SIZE)) {
+                addAll(part);
+            }
+            ready = true;
+            long count = filter.count();
+            if (count > filter.getExpectedInsertions()) {
+                log.warn("布隆过滤器 key 数量 {} 超过预计数量 {} 误判率将升高 => {}", count, filter.getExpectedInsertions(), name);
+            }
+            log.info("布隆过滤器初始化完成 => {} key数量: {}", name, keys.size());
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    /**
+     * 单次往返批量写入 key
+     * <p>
+     * RBloomFilter 仅支持逐个写入 此处按 RedissonBloomFilter 相同的哈希与下标算法计算位下标 通过 pipeline 批量置位
+     */
+    private void addAll(Collection<?> keys) {
+        long size = filter.getSize();
+        int hashIterations = filter.getHashIterations();
+        RBatch batch = RedisUtils.getClient().createBatch();
+        RBitSetAsync bitSet = batch.getBitSet(filter.getName());
+        for (Object key : keys) {
+            long[] hashes = hash(String.valueOf(key));
+            long hash = hashes[0];
+            for (int i = 0; i < hashIterations; i++) {
+                bitSet.setAsync((hash & Long.MAX_VALUE) % size);
+                hash += i % 2 == 0 ? hashes[1] : hashes[0];
+            }
+        }
+        batch.execute();
+    }
+
+    private long[] hash(String key) {
+        ByteBuf buf;
+        try {
+            buf = filter.getCodec().getValueEncoder().encode(key);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        try {
+            return Hash.hash128(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * 过滤器已被删除时停止过滤 并在后台重新初始化
+     */
+    private void reloadIfMissing() {
+        if (loading.get()) {
+            return;
+        }
+        try {
+            if (filter.isExists()) {
+                return;
+            }
+        } catch (Exception e) {
+            // redis 不可用时不重新初始化
+            return;
+        }
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        ready = false;
+        log.warn("布隆过滤器已被删除 重新初始化 => {}", name);
+        try {
+            SpringUtils.getBean(ScheduledExecutorService.class).execute(() -> {
+                try {
+                    load();
+                } catch (Exception e) {
+                    log.error("布隆过滤器重新初始化失败 => {}", name, e);
+                }
+            });
+        } catch (Exception e) {
+            loading.set(false);
+            log.error("布隆过滤器重新初始化失败 => {}", name, e);
+        }
+    }
+
+}
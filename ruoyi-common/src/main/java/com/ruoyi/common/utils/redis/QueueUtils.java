@@ -1,10 +1,17 @@
 package com.ruoyi.common.utils.redis;
 
+import cn.hutool.core.collection.CollUtil;
 import com.ruoyi.common.utils.spring.SpringUtils;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.redisson.api.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -12,6 +19,8 @@ import java.util.function.Consumer;
  * 分布式队列工具
  * 轻量级队列 重量级数据量 请使用 MQ
  * 要求 redis 5.X 以上
+ * <p>
+ * 延迟队列与有界队列的实例按队列名缓存 创建延迟队列实例会注册转移任务 不应每次调用重新创建
  *
  * @author Lion Li
  * @version 3.6.0 新增
@@ -21,6 +30,9 @@ public class QueueUtils {
 
     private static final RedissonClient CLIENT = SpringUtils.getBean(RedissonClient.class);
 
+    private static final Map<String, RDelayedQueue<?>> DELAYED_QUEUES = new ConcurrentHashMap<>();
+
+    private static final Map<String, RBoundedBlockingQueue<?>> BOUNDED_QUEUES = new ConcurrentHashMap<>();
 
     /**
      * 获取客户端实例
@@ -40,6 +52,30 @@ public class QueueUtils {
         return queue.offer(data);
     }
 
+    /**
+     * 批量添加普通队列数据 单次往返
+     *
+     * @param queueName 队列名
+     * @param dataList  数据集合
+     */
+    public static <T> boolean addQueueObjects(String queueName, Collection<T> dataList) {
+        RBlockingQueue<T> queue = CLIENT.getBlockingQueue(queueName);
+        return queue.addAll(dataList);
+    }
+
+    /**
+     * 批量获取队列数据 单次往返 没有数据返回空集合(不支持延迟队列)
+     *
+     * @param queueName 队列名
+     * @param maxCount  最大数量
+     */
+    public static <T> List<T> drainQueueObjects(String queueName, int maxCount) {
+        RBlockingQueue<T> queue = CLIENT.getBlockingQueue(queueName);
+        List<T> list = new ArrayList<>(Math.min(maxCount, 1000));
+        queue.drainTo(list, maxCount);
+        return list;
+    }
+
     /**
      * 通用获取一个队列数据 没有数据返回 null(不支持延迟队列)
      *
@@ -86,19 +122,34 @@ public class QueueUtils {
      * @param timeUnit  单位
      */
     public static <T> void addDelayedQueueObject(String queueName, T data, long time, TimeUnit timeUnit) {
-        RBlockingQueue<T> queue = CLIENT.getBlockingQueue(queueName);
-        RDelayedQueue<T> delayedQueue = CLIENT.getDelayedQueue(queue);
+        RDelayedQueue<T> delayedQueue = getDelayedQueue(queueName);
         delayedQueue.offer(data, time, timeUnit);
     }
 
+    /**
+     * 批量添加延迟队列数据 异步发送后统一等待结果
+     *
+     * @param queueName 队列名
+     * @param dataList  数据集合
+     * @param time      延迟时间
+     * @param timeUnit  单位
+     */
+    public static <T> void addDelayedQueueObjects(String queueName, Collection<T> dataList, long time, TimeUnit timeUnit) {
+        RDelayedQueue<T> delayedQueue = getDelayedQueue(queueName);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(dataList.size());
+        for (T data : dataList) {
+            futures.add(delayedQueue.offerAsync(data, time, timeUnit).toCompletableFuture());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
     /**
      * 获取一个延迟队列数据 没有数据返回 null
      *
      * @param queueName 队列名
      */
     public static <T> T getDelayedQueueObject(String queueName) {
-        RBlockingQueue<T> queue = CLIENT.getBlockingQueue(queueName);
-        RDelayedQueue<T> delayedQueue = CLIENT.getDelayedQueue(queue);
+        RDelayedQueue<T> delayedQueue = getDelayedQueue(queueName);
         return delayedQueue.poll();
     }
 
@@ -106,8 +157,7 @@ public class QueueUtils {
      * 删除延迟队列数据
      */
     public static <T> boolean removeDelayedQueueObject(String queueName, T data) {
-        RBlockingQueue<T> queue = CLIENT.getBlockingQueue(queueName);
-        RDelayedQueue<T> delayedQueue = CLIENT.getDelayedQueue(queue);
+        RDelayedQueue<T> delayedQueue = getDelayedQueue(queueName);
         return delayedQueue.remove(data);
     }
 
@@ -115,11 +165,22 @@ public class QueueUtils {
      * 销毁延迟队列 所有阻塞监听 报错
      */
     public static <T> void destroyDelayedQueue(String queueName) {
-        RBlockingQueue<T> queue = CLIENT.getBlockingQueue(queueName);
-        RDelayedQueue<T> delayedQueue = CLIENT.getDelayedQueue(queue);
+        RDelayedQueue<T> delayedQueue = getDelayedQueue(queueName);
+        DELAYED_QUEUES.remove(queueName);
         delayedQueue.destroy();
     }
 
+    /**
+     * 获取延迟队列实例 按队列名缓存
+     *
+     * @param queueName 队列名
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RDelayedQueue<T> getDelayedQueue(String queueName) {
+        return (RDelayedQueue<T>) DELAYED_QUEUES.computeIfAbsent(queueName,
+            name -> CLIENT.getDelayedQueue(CLIENT.getBlockingQueue(name)));
+    }
+
     /**
      * 添加优先队列数据
      *
@@ -138,7 +199,7 @@ public class QueueUtils {
      * @param capacity  容量
      */
     public static <T> boolean trySetBoundedQueueCapacity(String queueName, int capacity) {
-        RBoundedBlockingQueue<T> boundedBlockingQueue = CLIENT.getBoundedBlockingQueue(queueName);
+        RBoundedBlockingQueue<T> boundedBlockingQueue = getBoundedQueue(queueName);
         return boundedBlockingQueue.trySetCapacity(capacity);
     }
 
@@ -150,7 +211,7 @@ public class QueueUtils {
      * @param destroy   已存在是否销毁
      */
     public static <T> boolean trySetBoundedQueueCapacity(String queueName, int capacity, boolean destroy) {
-        RBoundedBlockingQueue<T> boundedBlockingQueue = CLIENT.getBoundedBlockingQueue(queueName);
+        RBoundedBlockingQueue<T> boundedBlockingQueue = getBoundedQueue(queueName);
         if (boundedBlockingQueue.isExists() && destroy) {
             destroyQueue(queueName);
         }
@@ -165,10 +226,36 @@ public class QueueUtils {
      * @return 添加成功 true 已达到界限 false
      */
     public static <T> boolean addBoundedQueueObject(String queueName, T data) {
-        RBoundedBlockingQueue<T> boundedBlockingQueue = CLIENT.getBoundedBlockingQueue(queueName);
+        RBoundedBlockingQueue<T> boundedBlockingQueue = getBoundedQueue(queueName);
         return boundedBlockingQueue.offer(data);
     }
 
+    /**
+     * 批量添加有界队列数据 超出剩余容量时全部不添加
+     *
+     * @param queueName 队列名
+     * @param dataList  数据集合
+     * @return 添加成功 true 已达到界限 false
+     */
+    public static <T> boolean addBoundedQueueObjects(String queueName, Collection<T> dataList) {
+        if (CollUtil.isEmpty(dataList)) {
+            return true;
+        }
+        RBoundedBlockingQueue<T> boundedBlockingQueue = getBoundedQueue(queueName);
+        // 剩余容量不足时返回 false 不抛出异常
+        return boundedBlockingQueue.addAll(dataList);
+    }
+
+    /**
+     * 获取有界队列实例 按队列名缓存
+     *
+     * @param queueName 队列名
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> RBoundedBlockingQueue<T> getBoundedQueue(String queueName) {
+        return (RBoundedBlockingQueue<T>) BOUNDED_QUEUES.computeIfAbsent(queueName, CLIENT::getBoundedBlockingQueue);
+    }
+
     /**
      * 订阅阻塞队列(可订阅所有实现类 例如: 延迟 优先 有界 等)
      */
@@ -0,0 +1,162 @@
+package com.ruoyi.common.utils.redis;
+
+import cn.hutool.core.util.IdUtil;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.redisson.api.RScript;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+
+/**
+ * 限流工具类
+ * <p>
+ * 每种算法均为单个 lua 脚本 判断与记录在一次调用内原子完成 时间统一取 redis 服务器时间
+ *
+ * @author Lion Li
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RateLimiterUtils {
+
+    /**
+     * 获取 redis 服务器当前毫秒时间
+     */
+    private static final String NOW =
+        "redis.replicate_commands() " +
+        "local time = redis.call('time') " +
+        "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) ";
+
+    /**
+     * 令牌桶 KEYS[1] 限流key ARGV[1] 速率 ARGV[2] 速率间隔(毫秒) 返回剩余令牌 -1 表示失败
+     */
+    private static final String TOKEN_BUCKET_SCRIPT = NOW +
+        "local rate = tonumber(ARGV[1]) " +
+        "local interval = tonumber(ARGV[2]) " +
+        "local bucket = redis.call('hmget', KEYS[1], 'tokens', 'ts') " +
+        "local tokens = tonumber(bucket[1]) " +
+        "local ts = tonumber(bucket[2]) " +
+        "if tokens == nil or ts == nil then tokens = rate ts = now end " +
+        "tokens = math.min(rate, tokens + math.max(0, now - ts) * rate / interval) " +
+        "local remain = -1 " +
+        "if tokens >= 1 then tokens = tokens - 1 remain = math.floor(tokens) end " +
+        "redis.call('hset', KEYS[1], 'tokens', tokens, 'ts', now) " +
+        "redis.call('pexpire', KEYS[1], interval) " +
+        "return remain";
+
+    /**
+     * 滑动窗口计数 KEYS[1] 限流key ARGV[1] 速率 ARGV[2] 窗口(毫秒) 返回剩余次数 -1 表示失败
+     * <p>
+     * 估算数量 = 上一窗口数量 * 上一窗口在滑动窗口内的占比 + 当前窗口数量
+     */
+    private static final String SLIDING_WINDOW_SCRIPT = NOW +
+        "local rate = tonumber(ARGV[1]) " +
+        "local window = tonumber(ARGV[2]) " +
+        "local index = math.floor(now / window) " +
+        "local data = redis.call('hmget', KEYS[1], 'w', 'c', 'p') " +
+        "local w = tonumber(data[1]) " +
+        "local c = tonumber(data[2]) or 0 " +
+        "local p = tonumber(data[3]) or 0 " +
+        "if w == nil or index > w + 1 then p = 0 c = 0 " +
+        "elseif index == w + 1 then p = c c = 0 end " +
+        "local count = p * (1 - (now - index * window) / window) + c " +
+        "local remain = -1 " +
+        "if count + 1 <= rate then c = c + 1 remain = math.floor(rate - count - 1) end " +
+        "redis.call('hset', KEYS[1], 'w', index, 'c', c, 'p', p) " +
+        "redis.call('pexpire', KEYS[1], window * 2) " +
+        "return remain";
+
+    /**
+     * 漏桶(GCRA) KEYS[1] 限流key ARGV[1] 速率 ARGV[2] 速率间隔(毫秒) 返回 0 表示成功 -1 表示失败
+     * <p>
+     * 记录下一次允许通过的时间 早于该时间到达的请求直接拒绝
+     */
+    private static final String LEAKY_BUCKET_SCRIPT = NOW +
+        "local emission = tonumber(ARGV[2]) / tonumber(ARGV[1]) " +
+        "local tat = tonumber(redis.call('get', KEYS[1])) " +
+        "if tat ~= nil and tat > now then return -1 end " +
+        "redis.call('set', KEYS[1], now + emission, 'px', math.ceil(emission)) " +
+        "return 0";
+
+    /**
+     * 并发数 KEYS[1] 限流key ARGV[1] 最大并发数 ARGV[2] 租约(毫秒) ARGV[3] 许可ID 返回剩余许可 -1 表示失败
+     * <p>
+     * 许可存储于有序集合 分数为租约到期时间 获取前先清理已到期的许可
+     */
+    private static final String CONCURRENCY_SCRIPT = NOW +
+        "local max = tonumber(ARGV[1]) " +
+        "local lease = tonumber(ARGV[2]) " +
+        "redis.call('zremrangebyscore', KEYS[1], '-inf', now) " +
+        "local count = redis.call('zcard', KEYS[1]) " +
+        "if count >= max then return -1 end " +
+        "redis.call('zadd', KEYS[1], now + lease, ARGV[3]) " +
+        "redis.call('pexpire', KEYS[1], lease) " +
+        "return max - count - 1";
+
+    /**
+     * 令牌桶限流 容量为 rate 每 rateInterval 秒补满 令牌按时间均匀补充
+     *
+     * @param key          限流key
+     * @param rate         速率
+     * @param rateInterval 速率间隔(秒)
+     * @return 剩余令牌 -1 表示失败
+     */
+    public static long tokenBucket(String key, int rate, int rateInterval) {
+        return eval(TOKEN_BUCKET_SCRIPT, key, rate, rateInterval * 1000L);
+    }
+
+    /**
+     * 滑动窗口限流 任意 rateInterval 秒内最多 rate 次(估算值)
+     *
+     * @param key          限流key
+     * @param rate         速率
+     * @param rateInterval 窗口(秒)
+     * @return 剩余次数 -1 表示失败
+     */
+    public static long slidingWindow(String key, int rate, int rateInterval) {
+        return eval(SLIDING_WINDOW_SCRIPT, key, rate, rateInterval * 1000L);
+    }
+
+    /**
+     * 漏桶限流 请求间隔不小于 rateInterval / rate 秒
+     *
+     * @param key          限流key
+     * @param rate         速率
+     * @param rateInterval 速率间隔(秒)
+     * @return 0 表示成功 -1 表示失败
+     */
+    public static long leakyBucket(String key, int rate, int rateInterval) {
+        return eval(LEAKY_BUCKET_SCRIPT, key, rate, rateInterval * 1000L);
+    }
+
+    /**
+     * 获取并发许可 使用完成后需调用 {@link #releaseConcurrency(String, String)} 释放
+     *
+     * @param key          限流key
+     * @param maxPermits   最大并发数
+     * @param leaseSeconds 租约(秒) 超时未释放的许可自动失效
+     * @return 许可ID 获取失败为 null
+     */
+    public static String tryAcquireConcurrency(String key, int maxPermits, int leaseSeconds) {
+        String permitId = IdUtil.fastSimpleUUID();
+        long remain = eval(CONCURRENCY_SCRIPT, key, maxPermits, leaseSeconds * 1000L, permitId);
+        return remain == -1 ? null : permitId;
+    }
+
+    /**
+     * 释放并发许可
+     *
+     * @param key      限流key
+     * @param permitId 许可ID
+     */
+    public static void releaseConcurrency(String key, String permitId) {
+        RedisUtils.getClient().getScoredSortedSet(key, StringCodec.INSTANCE).remove(permitId);
+    }
+
+    private static long eval(String script, String key, Object... values) {
+        RScript rScript = RedisUtils.getClient().getScript(StringCodec.INSTANCE);
+        Long result = rScript.eval(RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER,
+            Collections.singletonList(key), values);
+        return result == null ? -1L : result;
+    }
+
+}
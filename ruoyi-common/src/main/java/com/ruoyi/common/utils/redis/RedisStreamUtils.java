@@ -0,0 +1,397 @@
+package com.ruoyi.common.utils.redis;
+
+import com.ruoyi.common.utils.spring.SpringUtils;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.redisson.api.*;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.api.stream.StreamCreateGroupArgs;
+import org.redisson.api.stream.StreamReadArgs;
+import org.redisson.api.stream.StreamReadGroupArgs;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * redis stream 消息工具
+ * <p>
+ * 与 {@link RedisUtils#publish} 的通道消息不同 消息持久化在 stream 中 写入时按 MAXLEN 近似裁剪
+ * 消费组模式 同组内每条消息只投递给一个消费者 确认(XACK)前保留在待处理列表 超时未确认可被其他消费者认领
+ * 广播模式 每个节点从上次读取的位置继续读取 连接短暂断开不丢失消息
+ * <p>
+ * 每条消息只有一个字段 {@link #PAYLOAD} 值使用全局编解码器序列化
+ * 要求 redis 5.X 以上
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@SuppressWarnings(value = {"unchecked"})
+public class RedisStreamUtils {
+
+    /**
+     * 默认最大长度
+     */
+    public static final int DEFAULT_MAX_LEN = 10000;
+
+    /**
+     * 消息字段名
+     */
+    public static final String PAYLOAD = "payload";
+
+    private static final RedissonClient CLIENT = SpringUtils.getBean(RedissonClient.class);
+
+    /**
+     * 广播订阅 每个 stream 一个读取线程
+     */
+    private static final Map<String, Subscriber> SUBSCRIBERS = new ConcurrentHashMap<>();
+
+    /**
+     * 获取客户端实例
+     */
+    public static RedissonClient getClient() {
+        return CLIENT;
+    }
+
+    /**
+     * 发送消息 按默认最大长度裁剪
+     *
+     * @param streamName stream 名
+     * @param msg        消息
+     * @return 消息id
+     */
+    public static <T> StreamMessageId publish(String streamName, T msg) {
+        return publish(streamName, msg, DEFAULT_MAX_LEN);
+    }
+
+    /**
+     * 发送消息
+     *
+     * @param streamName stream 名
+     * @param msg        消息
+     * @param maxLen     最大长度 近似裁剪 实际长度可能略大
+     * @return 消息id
+     */
+    public static <T> StreamMessageId publish(String streamName, T msg, int maxLen) {
+        RStream<String, T> stream = CLIENT.getStream(streamName);
+        return stream.add(StreamAddArgs.entry(PAYLOAD, msg).trimNonStrict().maxLen(maxLen).noLimit());
+    }
+
+    /**
+     * 批量发送消息 单次往返
+     *
+     * @param streamName stream 名
+     * @param msgList    消息集合
+     * @param maxLen     最大长度 近似裁剪 实际长度可能略大
+     */
+    public static <T> void publishAll(String streamName, Collection<T> msgList, int maxLen) {
+        if (msgList.isEmpty()) {
+            return;
+        }
+        RBatch batch = CLIENT.createBatch();
+        RStreamAsync<String, T> stream = batch.getStream(streamName);
+        for (T msg : msgList) {
+            stream.addAsync(StreamAddArgs.entry(PAYLOAD, msg).trimNonStrict().maxLen(maxLen).noLimit());
+        }
+        batch.execute();
+    }
+
+    /**
+     * 创建消费组 stream 不存在时自动创建 新建的消费组从 stream 中最早的消息开始消费
+     *
+     * @param streamName stream 名
+     * @param groupName  消费组名
+     * @return 是否新建 已存在返回 false
+     */
+    public static boolean createGroup(String streamName, String groupName) {
+        try {
+            CLIENT.getStream(streamName).createGroup(StreamCreateGroupArgs.name(groupName).id(StreamMessageId.ALL).makeStream());
+            return true;
+        } catch (Exception e) {
+            if (e.getMessage() != null && e.getMessage().contains("BUSYGROUP")) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 消费组批量读取新消息 无消息时阻塞等待
+     *
+     * @param streamName   stream 名
+     * @param groupName    消费组名
+     * @param consumerName 消费者名
+     * @param count        最大读取数量
+     * @param timeout      阻塞等待时间
+     * @return 消息id与消息 按id顺序
+     */
+    public static <T> Map<StreamMessageId, T> readGroup(String streamName, String groupName, String consumerName,
+                                                        int count, Duration timeout) {
+        RStream<String, T> stream = CLIENT.getStream(streamName);
+        Map<StreamMessageId, Map<String, T>> entries = stream.readGroup(groupName, consumerName,
+            StreamReadGroupArgs.neverDelivered().count(count).timeout(timeout));
+        return toPayloads(entries);
+    }
+
+    /**
+     * 确认消息 确认后从待处理列表移除
+     *
+     * @param streamName stream 名
+     * @param groupName  消费组名
+     * @param ids        消息id
+     * @return 确认数量
+     */
+    public static long ack(String streamName, String groupName, Collection<StreamMessageId> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return CLIENT.getStream(streamName).ack(groupName, ids.toArray(new StreamMessageId[0]));
+    }
+
+    /**
+     * 查询待处理消息 按id顺序
+     *
+     * @param streamName stream 名
+     * @param groupName  消费组名
+     * @param count      最大数量
+     */
+    public static List<PendingEntry> listPending(String streamName, String groupName, int count) {
+        return CLIENT.getStream(streamName).listPending(groupName, StreamMessageId.MIN, StreamMessageId.MAX, count);
+    }
+
+    /**
+     * 认领超时未确认的消息 已被裁剪的消息直接确认
+     * <p>
+     * 使用 XPENDING + XCLAIM 兼容 redis 5.X
+     *
+     * @param streamName   stream 名
+     * @param groupName    消费组名
+     * @param consumerName 认领的消费者名
+     * @param pending      待处理消息 由 {@link #listPending} 查询
+     * @param minIdle      最小空闲时间(毫秒) 认领时再次校验 避免多个消费者重复认领
+     * @return 认领成功的消息id与消息 按id顺序
+     */
+    public static <T> Map<StreamMessageId, T> claim(String streamName, String groupName, String consumerName,
+                                                    Collection<PendingEntry> pending, long minIdle) {
+        List<StreamMessageId> ids = new ArrayList<>();
+        for (PendingEntry entry : pending) {
+            if (entry.getIdleTime() >= minIdle) {
+                ids.add(entry.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        RStream<String, T> stream = CLIENT.getStream(streamName);
+        Map<StreamMessageId, Map<String, T>> entries = stream.claim(groupName, consumerName,
+            minIdle, TimeUnit.MILLISECONDS, ids.toArray(new StreamMessageId[0]));
+        Map<StreamMessageId, T> result = toPayloads(entries);
+        if (result.size() < ids.size()) {
+            // 认领失败的消息已被其他消费者认领或已被裁剪 仅确认已被裁剪的消息
+            List<StreamMessageId> trimmed = new ArrayList<>();
+            for (StreamMessageId id : ids) {
+                if (!result.containsKey(id) && stream.range(1, id, id).isEmpty()) {
+                    trimmed.add(id);
+                }
+            }
+            ack(streamName, groupName, trimmed);
+        }
+        return result;
+    }
+
+    /**
+     * 将消息转入死信 stream 并确认
+     *
+     * @param streamName     stream 名
+     * @param groupName      消费组名
+     * @param deadStreamName 死信 stream 名
+     * @param messages       消息id与消息
+     */
+    public static <T> void deadLetter(String streamName, String groupName, String deadStreamName,
+                                      Map<StreamMessageId, T> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        RBatch batch = CLIENT.createBatch();
+        RStreamAsync<String, T> deadStream = batch.getStream(deadStreamName);
+        messages.values().forEach(msg ->
+            deadStream.addAsync(StreamAddArgs.entry(PAYLOAD, msg).trimNonStrict().maxLen(DEFAULT_MAX_LEN).noLimit()));
+        batch.getStream(streamName).ackAsync(groupName, messages.keySet().toArray(new StreamMessageId[0]));
+        batch.execute();
+    }
+
+    /**
+     * 删除没有待处理消息且空闲超过指定时间的消费者 删除消费者会一并删除其待处理消息 故跳过有待处理消息的消费者
+     *
+     * @param streamName stream 名
+     * @param groupName  消费组名
+     * @param minIdle    最小空闲时间(毫秒)
+     * @param names      限定的消费者名 为空表示不限定
+     * @return 删除数量
+     */
+    public static int removeIdleConsumers(String streamName, String groupName, long minIdle, Collection<String> names) {
+        RStream<String, Object> stream = CLIENT.getStream(streamName);
+        int count = 0;
+        for (StreamConsumer consumer : stream.listConsumers(groupName)) {
+            if (consumer.getPending() == 0 && consumer.getIdleTime() >= minIdle
+                && (names.isEmpty() || names.contains(consumer.getName()))) {
+                stream.removeConsumer(groupName, consumer.getName());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 广播订阅 所有节点都会收到消息 项目初始化设置一次即可
+     * <p>
+     * 同一 stream 的订阅共用一个读取线程 从订阅时 stream 的最后一条消息之后开始读取
+     *
+     * @param streamName stream 名
+     * @param consumer   自定义处理
+     */
+    public static <T> void subscribe(String streamName, Consumer<T> consumer) {
+        subscribe(streamName, consumer, null);
+    }
+
+    /**
+     * 广播订阅 并处理消息丢失
+     * <p>
+     * 断线或处理过慢期间 未读取的消息可能已被裁剪 检测到 stream 最早的消息id大于上次读取的id时调用 onGap
+     * 订阅时 stream 为空且尚未读取到消息时无法检测
+     *
+     * @param streamName stream 名
+     * @param consumer   自定义处理
+     * @param onGap      消息丢失时的处理 例如清空全部本地缓存
+     */
+    public static <T> void subscribe(String streamName, Consumer<T> consumer, Runnable onGap) {
+        Subscriber subscriber = SUBSCRIBERS.computeIfAbsent(streamName, Subscriber::new);
+        subscriber.addConsumer((Consumer<Object>) consumer);
+        if (onGap != null) {
+            subscriber.addGapHandler(onGap);
+        }
+    }
+
+    private static <T> Map<StreamMessageId, T> toPayloads(Map<StreamMessageId, Map<String, T>> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // 返回结果无序 按id排序
+        Map<StreamMessageId, T> result = new TreeMap<>(Comparator
+            .comparingLong(StreamMessageId::getId0).thenComparingLong(StreamMessageId::getId1));
+        entries.forEach((id, fields) -> result.put(id, fields.get(PAYLOAD)));
+        return result;
+    }
+
+    /**
+     * 广播读取线程 XREAD BLOCK 从上次读取的id继续
+     * 读取异常恢复后 或单次读满(读取落后)时 检查未读消息是否已被裁剪
+     */
+    private static class Subscriber implements Runnable {
+
+        /**
+         * 单次读取数量
+         */
+        private static final int READ_COUNT = 100;
+
+        private static final StreamMessageId INITIAL_ID = new StreamMessageId(0, 0);
+
+        private final String streamName;
+
+        private final List<Consumer<Object>> consumers = new CopyOnWriteArrayList<>();
+
+        private final List<Runnable> gapHandlers = new CopyOnWriteArrayList<>();
+
+        private StreamMessageId lastId;
+
+        private Subscriber(String streamName) {
+            this.streamName = streamName;
+            Map<StreamMessageId, Map<String, Object>> last = CLIENT.<String, Object>getStream(streamName)
+                .rangeReversed(1, StreamMessageId.MAX, StreamMessageId.MIN);
+            this.lastId = last.isEmpty() ? INITIAL_ID : last.keySet().iterator().next();
+            new BasicThreadFactory.Builder().namingPattern("stream-" + streamName).daemon(true).build()
+                .newThread(this).start();
+        }
+
+        private void addConsumer(Consumer<Object> consumer) {
+            consumers.add(consumer);
+        }
+
+        private void addGapHandler(Runnable onGap) {
+            gapHandlers.add(onGap);
+        }
+
+        @Override
+        public void run() {
+            RStream<String, Object> stream = CLIENT.getStream(streamName);
+            boolean checkGap = false;
+            while (!CLIENT.isShutdown() && !CLIENT.isShuttingDown()) {
+                try {
+                    if (checkGap) {
+                        checkGap(stream);
+                        checkGap = false;
+                    }
+                    Map<StreamMessageId, Map<String, Object>> entries = stream.read(
+                        StreamReadArgs.greaterThan(lastId).count(READ_COUNT).timeout(Duration.ofSeconds(5)));
+                    Map<StreamMessageId, Object> messages = toPayloads(entries);
+                    checkGap = messages.size() >= READ_COUNT;
+                    for (Map.Entry<StreamMessageId, Object> entry : messages.entrySet()) {
+                        for (Consumer<Object> consumer : consumers) {
+                            try {
+                                consumer.accept(entry.getValue());
+                            } catch (Exception e) {
+                                log.error("stream 消息处理异常 => {}", streamName, e);
+                            }
+                        }
+                        lastId = entry.getKey();
+                    }
+                } catch (Exception e) {
+                    if (CLIENT.isShutdown() || CLIENT.isShuttingDown()) {
+                        return;
+                    }
+                    log.error("stream 读取异常 => {}", streamName, e);
+                    checkGap = true;
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 最早的消息id大于上次读取的id 说明未读消息可能已被裁剪
+         */
+        private void checkGap(RStream<String, Object> stream) {
+            if (gapHandlers.isEmpty() || INITIAL_ID.equals(lastId)) {
+                return;
+            }
+            Map<StreamMessageId, Map<String, Object>> first = stream.range(1, StreamMessageId.MIN, StreamMessageId.MAX);
+            if (first.isEmpty()) {
+                return;
+            }
+            StreamMessageId firstId = first.keySet().iterator().next();
+            if (firstId.getId0() > lastId.getId0()
+                || (firstId.getId0() == lastId.getId0() && firstId.getId1() > lastId.getId1())) {
+                log.warn("stream 未读消息已被裁剪 => {} 上次读取: {} 最早消息: {}", streamName, lastId, firstId);
+                for (Runnable onGap : gapHandlers) {
+                    try {
+                        onGap.run();
+                    } catch (Exception e) {
+                        log.error("stream 消息丢失处理异常 => {}", streamName, e);
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -1,15 +1,14 @@
 package com.ruoyi.common.utils.redis;
 
+import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.utils.spring.SpringUtils;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.redisson.api.*;
+import org.redisson.client.codec.Codec;
 
 import java.time.Duration;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -27,22 +26,17 @@ public class RedisUtils {
     private static final RedissonClient CLIENT = SpringUtils.getBean(RedissonClient.class);
 
     /**
-     * 限流
+     * 限流 单次往返 其他限流算法见 {@link RateLimiterUtils}
+     * <p>
+     * 令牌桶容量为 rate 每 rateInterval 秒补满 令牌按时间均匀补充
      *
      * @param key          限流key
-     * @param rateType     限流类型
      * @param rate         速率
      * @param rateInterval 速率间隔
      * @return -1 表示失败
      */
-    public static long rateLimiter(String key, RateType rateType, int rate, int rateInterval) {
-        RRateLimiter rateLimiter = CLIENT.getRateLimiter(key);
-        rateLimiter.trySetRate(rateType, rate, rateInterval, RateIntervalUnit.SECONDS);
-        if (rateLimiter.tryAcquire()) {
-            return rateLimiter.availablePermits();
-        } else {
-            return -1L;
-        }
+    public static long rateLimiter(String key, int rate, int rateInterval) {
+        return RateLimiterUtils.tokenBucket(key, rate, rateInterval);
     }
 
     /**
@@ -82,6 +76,19 @@ public class RedisUtils {
         topic.addListener(clazz, (channel, msg) -> consumer.accept(msg));
     }
 
+    /**
+     * 获取 key 对应的编解码器 开启压缩且匹配 key 前缀时返回压缩编解码器
+     *
+     * @param key 缓存的键值
+     */
+    public static Codec getCodec(final String key) {
+        Codec codec = CLIENT.getConfig().getCodec();
+        if (codec instanceof CompressionCodec) {
+            return ((CompressionCodec) codec).getCodec(key);
+        }
+        return codec;
+    }
+
     /**
      * 缓存基本的对象，Integer、String、实体类等
      *
@@ -101,7 +108,7 @@ public class RedisUtils {
      * @since Redis 6.X 以上使用 setAndKeepTTL 兼容 5.X 方案
      */
     public static <T> void setCacheObject(final String key, final T value, final boolean isSaveTtl) {
-        RBucket<T> bucket = CLIENT.getBucket(key);
+        RBucket<T> bucket = CLIENT.getBucket(key, getCodec(key));
         if (isSaveTtl) {
             try {
                 bucket.setAndKeepTTL(value);
@@ -123,7 +130,7 @@ public class RedisUtils {
      */
     public static <T> void setCacheObject(final String key, final T value, final Duration duration) {
         RBatch batch = CLIENT.createBatch();
-        RBucketAsync<T> bucket = batch.getBucket(key);
+        RBucketAsync<T> bucket = batch.getBucket(key, getCodec(key));
         bucket.setAsync(value);
         bucket.expireAsync(duration);
         batch.execute();
@@ -137,7 +144,7 @@ public class RedisUtils {
      * @return set成功或失败
      */
     public static <T> boolean setObjectIfAbsent(final String key, final T value, final Duration duration) {
-        RBucket<T> bucket = CLIENT.getBucket(key);
+        RBucket<T> bucket = CLIENT.getBucket(key, getCodec(key));
         return bucket.setIfAbsent(value, duration);
     }
 
@@ -468,6 +475,57 @@ public class RedisUtils {
         return stream.collect(Collectors.toList());
     }
 
+    /**
+     * 分批扫描匹配的 key 遍历时按需发送 SCAN 不一次性加载全部 key
+     *
+     * @param pattern 字符串前缀
+     * @param count   每次 SCAN 的数量
+     * @return key 迭代器
+     */
+    public static Iterator<String> scanKeys(final String pattern, final int count) {
+        return CLIENT.getKeys().getKeysByPattern(pattern, count).iterator();
+    }
+
+    /**
+     * 随机采样 key 单次往返
+     *
+     * @param samples 采样次数
+     * @return 采样到的 key 可能重复
+     */
+    public static List<String> randomKeys(final int samples) {
+        RBatch batch = CLIENT.createBatch();
+        for (int i = 0; i < samples; i++) {
+            batch.getKeys().randomKeyAsync();
+        }
+        List<String> keys = new ArrayList<>(samples);
+        for (Object key : batch.execute().getResponses()) {
+            if (key != null) {
+                keys.add(key.toString());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 获取 key 总数
+     */
+    public static long countKeys() {
+        return CLIENT.getKeys().count();
+    }
+
+    /**
+     * 异步删除 key(UNLINK) 内存由 redis 后台线程回收
+     *
+     * @param keys 键集合
+     * @return 删除数量
+     */
+    public static long unlinkKeys(final Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        return CLIENT.getKeys().unlink(keys.toArray(new String[0]));
+    }
+
     /**
      * 删除缓存的基本对象列表
      *
@@ -475,6 +533,17 @@ public class RedisUtils {
      */
     public static void deleteKeys(final String pattern) {
         CLIENT.getKeys().deleteByPattern(pattern);
+        clearNearCaches();
+    }
+
+    /**
+     * 通知所有节点清空全部本地缓存 绕过 spring cache 直接删除 redis key 后使用
+     * <p>
+     * 消息格式与本地缓存失效通知一致 节点标识为空 缓存名为 {@link CacheConstants#NEAR_CACHE_ALL}
+     */
+    public static void clearNearCaches() {
+        RedisStreamUtils.publish(CacheConstants.NEAR_CACHE_STREAM, "\n" + CacheConstants.NEAR_CACHE_ALL + "\n",
+            CacheConstants.NEAR_CACHE_STREAM_MAX_LEN);
     }
 
     /**
@@ -2,6 +2,7 @@ package com.ruoyi.demo.controller;
 
 import com.ruoyi.common.annotation.RateLimiter;
 import com.ruoyi.common.core.domain.R;
+import com.ruoyi.common.enums.LimitAlgorithm;
 import com.ruoyi.common.enums.LimitType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -61,4 +62,35 @@ public class RedisRateLimiterController {
         return R.ok("操作成功", value);
     }
 
+    /**
+     * 测试滑动窗口限流
+     * 任意10秒内最多2次 窗口边界处不会放行4次
+     */
+    @RateLimiter(count = 2, time = 10, algorithm = LimitAlgorithm.SLIDING_WINDOW)
+    @GetMapping("/testSlidingWindow")
+    public R<String> testSlidingWindow(String value) {
+        return R.ok("操作成功", value);
+    }
+
+    /**
+     * 测试漏桶限流
+     * 每5秒最多通过1次 不允许突发
+     */
+    @RateLimiter(count = 2, time = 10, algorithm = LimitAlgorithm.LEAKY_BUCKET)
+    @GetMapping("/testLeakyBucket")
+    public R<String> testLeakyBucket(String value) {
+        return R.ok("操作成功", value);
+    }
+
+    /**
+     * 测试并发数限流
+     * 同时执行的请求最多2个 许可租约60秒
+     */
+    @RateLimiter(count = 2, time = 60, algorithm = LimitAlgorithm.CONCURRENCY)
+    @GetMapping("/testConcurrency")
+    public R<String> testConcurrency(String value) throws InterruptedException {
+        Thread.sleep(5000);
+        return R.ok("操作成功", value);
+    }
+
 }
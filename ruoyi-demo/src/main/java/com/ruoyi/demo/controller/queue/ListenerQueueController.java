@@ -0,0 +1,54 @@
+package com.ruoyi.demo.controller.queue;
+
+import com.ruoyi.common.annotation.RedisQueueListener;
+import com.ruoyi.common.core.domain.R;
+import com.ruoyi.common.utils.redis.QueueUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 注解监听队列 演示案例
+ * <p>
+ * 多线程批量消费 节点宕机时未处理完成的数据由其他节点放回队列 保证至少消费一次 做好幂等
+ * 消费失败超过重试次数放入死信队列 demo-listener-queue:dlq
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@RestController
+@RequestMapping("/demo/queue/listener")
+public class ListenerQueueController {
+
+    private static final String QUEUE_NAME = "demo-listener-queue";
+
+    /**
+     * 添加队列数据
+     *
+     * @param orderNum 订单号
+     * @param count    数量
+     */
+    @GetMapping("/add")
+    public R<Void> add(String orderNum, Integer count) {
+        List<String> data = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            data.add(orderNum + "-" + i);
+        }
+        QueueUtils.addQueueObjects(QUEUE_NAME, data);
+        log.info("通道: {} , 发送数据: {} 数量: {}", QUEUE_NAME, orderNum, count);
+        return R.ok("操作成功");
+    }
+
+    /**
+     * 消费队列数据 两个线程 每次最多10条
+     */
+    @RedisQueueListener(value = QUEUE_NAME, concurrency = 2, batchSize = 10)
+    public void onMessage(List<String> orderNums) {
+        log.info("通道: {}, 收到数据: {}", QUEUE_NAME, orderNums);
+    }
+
+}
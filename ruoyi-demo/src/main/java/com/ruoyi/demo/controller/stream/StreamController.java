@@ -0,0 +1,48 @@
+package com.ruoyi.demo.controller.stream;
+
+import com.ruoyi.common.annotation.RedisStreamListener;
+import com.ruoyi.common.core.domain.R;
+import com.ruoyi.common.utils.redis.RedisStreamUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * redis stream 演示案例
+ * <p>
+ * 消息持久化 同一消费组内负载均衡 节点重启期间的消息在启动后继续消费 做好幂等
+ * 集群测试流程 两台集群同时启动 在其中一台发送数据 观察两台接收消息的规律
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@RestController
+@RequestMapping("/demo/stream")
+public class StreamController {
+
+    private static final String STREAM_NAME = "demo-stream";
+
+    /**
+     * 发送消息 保留最近1000条
+     *
+     * @param msg 消息
+     */
+    @GetMapping("/publish")
+    public R<Void> publish(String msg) {
+        RedisStreamUtils.publish(STREAM_NAME, msg, 1000);
+        log.info("stream: {} , 发送数据: {}", STREAM_NAME, msg);
+        return R.ok("操作成功");
+    }
+
+    /**
+     * 消费组 demo-group 两个线程 每次最多10条
+     */
+    @RedisStreamListener(value = STREAM_NAME, group = "demo-group", concurrency = 2, batchSize = 10)
+    public void onMessage(List<String> msgList) {
+        log.info("stream: {}, 收到数据: {}", STREAM_NAME, msgList);
+    }
+
+}
@@ -1,23 +1,26 @@
 package com.ruoyi.framework.aspectj;
 
 import cn.hutool.core.util.ArrayUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ruoyi.common.annotation.RateLimiter;
 import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.enums.LimitAlgorithm;
 import com.ruoyi.common.enums.LimitType;
 import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.MessageUtils;
 import com.ruoyi.common.utils.ServletUtils;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.RateLimiterUtils;
 import com.ruoyi.common.utils.redis.RedisUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.redisson.api.RateType;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
-import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParserContext;
@@ -27,9 +30,16 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 限流处理
+ * <p>
+ * 限流 key 的 spel 表达式按方法缓存 每次请求使用独立的上下文解析
+ * 并发数限流在方法执行完成后释放许可
+ * 开启本地预检时 本节点令牌桶已耗尽则直接拒绝 redis 拒绝时归还本地令牌 保证本地令牌不少于 redis 令牌
  *
  * @author Lion Li
  */
@@ -46,76 +56,118 @@ public class RateLimiterAspect {
      * 定义spel解析模版
      */
     private final ParserContext parserContext = new TemplateParserContext();
-    /**
-     * 定义spel上下文对象进行解析
-     */
-    private final EvaluationContext context = new StandardEvaluationContext();
     /**
      * 方法参数解析器
      */
     private final ParameterNameDiscoverer pnd = new DefaultParameterNameDiscoverer();
+    /**
+     * 方法与已解析的限流key表达式
+     */
+    private final Map<Method, KeyExpression> expressionCache = new ConcurrentHashMap<>();
+    /**
+     * 本地令牌桶 长时间未访问自动清理
+     */
+    private final Cache<String, LocalTokenBucket> localBuckets = Caffeine.newBuilder()
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .maximumSize(10000)
+        .build();
 
-    @Before("@annotation(rateLimiter)")
-    public void doBefore(JoinPoint point, RateLimiter rateLimiter) throws Throwable {
-        int time = rateLimiter.time();
-        int count = rateLimiter.count();
+    @Around("@annotation(rateLimiter)")
+    public Object doAround(ProceedingJoinPoint point, RateLimiter rateLimiter) throws Throwable {
         String combineKey = getCombineKey(rateLimiter, point);
+        if (rateLimiter.algorithm() != LimitAlgorithm.CONCURRENCY) {
+            checkRate(rateLimiter, combineKey);
+            return point.proceed();
+        }
+        String permitId;
         try {
-            RateType rateType = RateType.OVERALL;
-            if (rateLimiter.limitType() == LimitType.CLUSTER) {
-                rateType = RateType.PER_CLIENT;
+            permitId = RateLimiterUtils.tryAcquireConcurrency(combineKey, rateLimiter.count(), rateLimiter.time());
+        } catch (Exception e) {
+            throw new RuntimeException("服务器限流异常，请稍候再试");
+        }
+        if (permitId == null) {
+            throw new ServiceException(getMessage(rateLimiter));
+        }
+        try {
+            return point.proceed();
+        } finally {
+            try {
+                RateLimiterUtils.releaseConcurrency(combineKey, permitId);
+            } catch (Exception e) {
+                // 释放失败时由租约到期自动释放
+                log.warn("并发许可释放失败 => '{}'", combineKey, e);
+            }
+        }
+    }
+
+    private void checkRate(RateLimiter rateLimiter, String combineKey) {
+        int time = rateLimiter.time();
+        int count = rateLimiter.count();
+        LocalTokenBucket localBucket = null;
+        if (rateLimiter.localCheck() && rateLimiter.algorithm() == LimitAlgorithm.TOKEN_BUCKET) {
+            localBucket = localBuckets.get(combineKey, k -> new LocalTokenBucket(count, time * 1000L));
+            if (!localBucket.tryAcquire()) {
+                throw new ServiceException(getMessage(rateLimiter));
             }
-            long number = RedisUtils.rateLimiter(combineKey, rateType, count, time);
-            if (number == -1) {
-                String message = rateLimiter.message();
-                if (StringUtils.startsWith(message, "{") && StringUtils.endsWith(message, "}")) {
-                    message = MessageUtils.message(StringUtils.substring(message, 1, message.length() - 1));
-                }
-                throw new ServiceException(message);
+        }
+        long number;
+        try {
+            if (rateLimiter.algorithm() == LimitAlgorithm.SLIDING_WINDOW) {
+                number = RateLimiterUtils.slidingWindow(combineKey, count, time);
+            } else if (rateLimiter.algorithm() == LimitAlgorithm.LEAKY_BUCKET) {
+                number = RateLimiterUtils.leakyBucket(combineKey, count, time);
+            } else {
+                number = RateLimiterUtils.tokenBucket(combineKey, count, time);
             }
-            log.info("限制令牌 => {}, 剩余令牌 => {}, 缓存key => '{}'", count, number, combineKey);
         } catch (Exception e) {
-            if (e instanceof ServiceException) {
-                throw e;
-            } else {
-                throw new RuntimeException("服务器限流异常，请稍候再试");
+            if (localBucket != null) {
+                localBucket.release();
             }
+            throw new RuntimeException("服务器限流异常，请稍候再试");
         }
+        if (number == -1) {
+            if (localBucket != null) {
+                localBucket.release();
+            }
+            throw new ServiceException(getMessage(rateLimiter));
+        }
+        log.info("限制令牌 => {}, 剩余令牌 => {}, 缓存key => '{}'", count, number, combineKey);
+    }
+
+    private String getMessage(RateLimiter rateLimiter) {
+        String message = rateLimiter.message();
+        if (StringUtils.startsWith(message, "{") && StringUtils.endsWith(message, "}")) {
+            message = MessageUtils.message(StringUtils.substring(message, 1, message.length() - 1));
+        }
+        return message;
     }
 
     public String getCombineKey(RateLimiter rateLimiter, JoinPoint point) {
         String key = rateLimiter.key();
-        // 获取方法(通过方法签名来获取)
-        MethodSignature signature = (MethodSignature) point.getSignature();
-        Method method = signature.getMethod();
-        Class<?> targetClass = method.getDeclaringClass();
         // 判断是否是spel格式
         if (StringUtils.containsAny(key, "#")) {
+            // 获取方法(通过方法签名来获取)
+            MethodSignature signature = (MethodSignature) point.getSignature();
+            Method method = signature.getMethod();
+            KeyExpression keyExpression = expressionCache.computeIfAbsent(method, m -> parseKey(m, rateLimiter.key()));
             // 获取参数值
             Object[] args = point.getArgs();
-            // 获取方法上参数的名称
-            String[] parameterNames = pnd.getParameterNames(method);
-            if (ArrayUtil.isEmpty(parameterNames)) {
-                throw new ServiceException("限流key解析异常!请联系管理员!");
-            }
-            for (int i = 0; i < parameterNames.length; i++) {
-                context.setVariable(parameterNames[i], args[i]);
+            StandardEvaluationContext context = new StandardEvaluationContext();
+            for (int i = 0; i < keyExpression.parameterNames.length; i++) {
+                context.setVariable(keyExpression.parameterNames[i], args[i]);
             }
             // 解析返回给key
             try {
-                Expression expression;
-                if (StringUtils.startsWith(key, parserContext.getExpressionPrefix())
-                    && StringUtils.endsWith(key, parserContext.getExpressionSuffix())) {
-                    expression = parser.parseExpression(key, parserContext);
-                } else {
-                    expression = parser.parseExpression(key);
-                }
-                key = expression.getValue(context, String.class) + ":";
+                key = keyExpression.expression.getValue(context, String.class) + ":";
             } catch (Exception e) {
                 throw new ServiceException("限流key解析异常!请联系管理员!");
             }
         }
         StringBuilder stringBuffer = new StringBuilder(CacheConstants.RATE_LIMIT_KEY);
+        if (rateLimiter.algorithm() != LimitAlgorithm.TOKEN_BUCKET) {
+            // 不同算法的数据结构不同 使用不同的 key
+            stringBuffer.append(rateLimiter.algorithm().name().toLowerCase()).append(":");
+        }
         stringBuffer.append(ServletUtils.getRequest().getRequestURI()).append(":");
         if (rateLimiter.limitType() == LimitType.IP) {
             // 获取请求ip
@@ -126,4 +178,78 @@ public class RateLimiterAspect {
         }
         return stringBuffer.append(key).toString();
     }
+
+    private KeyExpression parseKey(Method method, String key) {
+        // 获取方法上参数的名称
+        String[] parameterNames = pnd.getParameterNames(method);
+        if (ArrayUtil.isEmpty(parameterNames)) {
+            throw new ServiceException("限流key解析异常!请联系管理员!");
+        }
+        try {
+            Expression expression;
+            if (StringUtils.startsWith(key, parserContext.getExpressionPrefix())
+                && StringUtils.endsWith(key, parserContext.getExpressionSuffix())) {
+                expression = parser.parseExpression(key, parserContext);
+            } else {
+                expression = parser.parseExpression(key);
+            }
+            return new KeyExpression(expression, parameterNames);
+        } catch (Exception e) {
+            throw new ServiceException("限流key解析异常!请联系管理员!");
+        }
+    }
+
+    /**
+     * 已解析的限流key表达式
+     */
+    private static class KeyExpression {
+
+        private final Expression expression;
+
+        private final String[] parameterNames;
+
+        private KeyExpression(Expression expression, String[] parameterNames) {
+            this.expression = expression;
+            this.parameterNames = parameterNames;
+        }
+
+    }
+
+    /**
+     * 本地令牌桶 与 redis 令牌桶使用相同的容量与补充速率
+     */
+    private static class LocalTokenBucket {
+
+        private final int rate;
+
+        private final long interval;
+
+        private double tokens;
+
+        private long lastTime;
+
+        private LocalTokenBucket(int rate, long interval) {
+            this.rate = rate;
+            this.interval = interval;
+            this.tokens = rate;
+            this.lastTime = System.currentTimeMillis();
+        }
+
+        private synchronized boolean tryAcquire() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(rate, tokens + Math.max(0, now - lastTime) * (double) rate / interval);
+            lastTime = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized void release() {
+            tokens = Math.min(rate, tokens + 1);
+        }
+
+    }
+
 }
@@ -1,13 +1,16 @@
 package com.ruoyi.framework.aspectj;
 
 import cn.dev33.satoken.SaManager;
+import cn.hutool.core.lang.hash.MurmurHash;
+import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.ObjectUtil;
-import cn.hutool.crypto.SecureUtil;
+import cn.hutool.core.util.StrUtil;
 import com.ruoyi.common.annotation.RepeatSubmit;
 import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.core.domain.R;
 import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.filter.RepeatedlyRequestWrapper;
 import com.ruoyi.common.utils.JsonUtils;
 import com.ruoyi.common.utils.MessageUtils;
 import com.ruoyi.common.utils.ServletUtils;
@@ -21,6 +24,7 @@ import org.aspectj.lang.annotation.Before;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.WebUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -28,9 +32,12 @@ import java.time.Duration;
 import java.util.Collection;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.TreeMap;
 
 /**
  * 防止重复提交(参考美团GTIS防重系统)
+ * <p>
+ * 防重 key 存放于请求属性中 随请求结束释放 异步分派时不会残留
  *
  * @author Lion Li
  */
@@ -38,7 +45,10 @@ import java.util.StringJoiner;
 @Component
 public class RepeatSubmitAspect {
 
-    private static final ThreadLocal<String> KEY_CACHE = new ThreadLocal<>();
+    /**
+     * 请求属性 存放本次请求的防重 key
+     */
+    private static final String KEY_ATTRIBUTE = RepeatSubmitAspect.class.getName() + ".KEY";
 
     @Before("@annotation(repeatSubmit)")
     public void doBefore(JoinPoint point, RepeatSubmit repeatSubmit) throws Throwable {
@@ -49,7 +59,6 @@ public class RepeatSubmitAspect {
             throw new ServiceException("重复提交间隔时间不能小于'1'秒");
         }
         HttpServletRequest request = ServletUtils.getRequest();
-        String nowParams = argsArrayToString(point.getArgs());
 
         // 请求地址（作为存放cache的key值）
         String url = request.getRequestURI();
@@ -57,11 +66,11 @@ public class RepeatSubmitAspect {
         // 唯一值（没有消息头则使用请求地址）
         String submitKey = StringUtils.trimToEmpty(request.getHeader(SaManager.getConfig().getTokenName()));
 
-        submitKey = SecureUtil.md5(submitKey + ":" + nowParams);
+        submitKey = fingerprint(request, submitKey, point.getArgs());
         // 唯一标识（指定key + url + 消息头）
         String cacheRepeatKey = CacheConstants.REPEAT_SUBMIT_KEY + url + submitKey;
         if (RedisUtils.setObjectIfAbsent(cacheRepeatKey, "", Duration.ofMillis(interval))) {
-            KEY_CACHE.set(cacheRepeatKey);
+            request.setAttribute(KEY_ATTRIBUTE, cacheRepeatKey);
         } else {
             String message = repeatSubmit.message();
             if (StringUtils.startsWith(message, "{") && StringUtils.endsWith(message, "}")) {
@@ -79,16 +88,12 @@ public class RepeatSubmitAspect {
     @AfterReturning(pointcut = "@annotation(repeatSubmit)", returning = "jsonResult")
     public void doAfterReturning(JoinPoint joinPoint, RepeatSubmit repeatSubmit, Object jsonResult) {
         if (jsonResult instanceof R) {
-            try {
-                R<?> r = (R<?>) jsonResult;
-                // 成功则不删除redis数据 保证在有效时间内无法重复提交
-                if (r.getCode() == R.SUCCESS) {
-                    return;
-                }
-                RedisUtils.deleteObject(KEY_CACHE.get());
-            } finally {
-                KEY_CACHE.remove();
+            R<?> r = (R<?>) jsonResult;
+            // 成功则不删除redis数据 保证在有效时间内无法重复提交
+            if (r.getCode() == R.SUCCESS) {
+                return;
             }
+            deleteRepeatKey();
         }
     }
 
@@ -100,8 +105,52 @@ public class RepeatSubmitAspect {
      */
     @AfterThrowing(value = "@annotation(repeatSubmit)", throwing = "e")
     public void doAfterThrowing(JoinPoint joinPoint, RepeatSubmit repeatSubmit, Exception e) {
-        RedisUtils.deleteObject(KEY_CACHE.get());
-        KEY_CACHE.remove();
+        deleteRepeatKey();
+    }
+
+    private void deleteRepeatKey() {
+        HttpServletRequest request = ServletUtils.getRequest();
+        Object cacheRepeatKey = request.getAttribute(KEY_ATTRIBUTE);
+        if (cacheRepeatKey != null) {
+            RedisUtils.deleteObject(cacheRepeatKey.toString());
+            request.removeAttribute(KEY_ATTRIBUTE);
+        }
+    }
+
+    /**
+     * 请求指纹 依次对 token、原始请求体、请求参数计算 MurmurHash3 128 位摘要
+     * 直接使用 {@link RepeatedlyRequestWrapper} 缓存的请求体 不再重新序列化方法参数
+     * 无请求体与请求参数时 回退为序列化方法参数
+     */
+    private String fingerprint(HttpServletRequest request, String token, Object[] args) {
+        long[] hash = MurmurHash.hash128(StrUtil.utf8Bytes(token));
+        boolean hashed = false;
+        RepeatedlyRequestWrapper wrapper = WebUtils.getNativeRequest(request, RepeatedlyRequestWrapper.class);
+        if (wrapper != null && ArrayUtil.isNotEmpty(wrapper.getBody())) {
+            hash = hash(wrapper.getBody(), hash);
+            hashed = true;
+        }
+        Map<String, String[]> parameterMap = request.getParameterMap();
+        if (MapUtil.isNotEmpty(parameterMap)) {
+            StringBuilder params = new StringBuilder();
+            new TreeMap<>(parameterMap).forEach((name, values) ->
+                params.append(name).append('=').append(String.join(",", values)).append('&'));
+            hash = hash(StrUtil.utf8Bytes(params), hash);
+            hashed = true;
+        }
+        if (!hashed) {
+            hash = hash(StrUtil.utf8Bytes(argsArrayToString(args)), hash);
+        }
+        // 定长十六进制 避免不同哈希值拼接后相同
+        return String.format("%016x%016x", hash[0], hash[1]);
+    }
+
+    /**
+     * 以上一段摘要为种子继续计算 并保留上一段摘要
+     */
+    private static long[] hash(byte[] data, long[] prev) {
+        long[] hash = MurmurHash.hash128(data, (int) (prev[0] ^ prev[1]));
+        return new long[]{hash[0] ^ prev[1], hash[1] ^ prev[0]};
     }
 
     /**
@@ -0,0 +1,109 @@
+package com.ruoyi.framework.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.redisson.codec.JsonJacksonCodec;
+
+/**
+ * JSON / Smile 可切换的 Jackson 编解码器
+ * <p>
+ * Smile 为 Jackson 的二进制 JSON 格式 复用重复的字段名与短字符串 体积更小 解析更快
+ * 值按配置格式写入 兼容模式下读取时根据 Smile 文件头识别格式 切换期间新旧数据可共存
+ * <p>
+ * map 的 key 始终使用 JSON 保证切换前后同一 key 对应同一 hash 字段
+ *
+ * @author Lion Li
+ */
+public class CompatibleJacksonCodec extends BaseCodec {
+
+    /**
+     * Smile 文件头 ":)\n"
+     */
+    private static final byte[] SMILE_HEADER = {0x3A, 0x29, 0x0A};
+
+    private final JsonJacksonCodec jsonCodec;
+
+    private final JsonJacksonCodec smileCodec;
+
+    /**
+     * 是否使用 Smile 写入
+     */
+    private final boolean smile;
+
+    /**
+     * 是否同时读取两种格式
+     */
+    private final boolean compatible;
+
+    private final Decoder<Object> compatibleDecoder = (buf, state) -> isSmile(buf)
+        ? this.smileCodec.getValueDecoder().decode(buf, state)
+        : this.jsonCodec.getValueDecoder().decode(buf, state);
+
+    /**
+     * @param jsonMapper  JSON 序列化配置
+     * @param smileMapper Smile 序列化配置
+     * @param smile       是否使用 Smile 写入
+     * @param compatible  是否同时读取两种格式
+     */
+    public CompatibleJacksonCodec(ObjectMapper jsonMapper, ObjectMapper smileMapper, boolean smile, boolean compatible) {
+        this.jsonCodec = new JsonJacksonCodec(jsonMapper);
+        this.smileCodec = new JsonJacksonCodec(smileMapper);
+        this.smile = smile;
+        this.compatible = compatible;
+    }
+
+    /**
+     * redisson 按 ClassLoader 复制编解码器时使用
+     */
+    public CompatibleJacksonCodec(ClassLoader classLoader, CompatibleJacksonCodec codec) {
+        this.jsonCodec = new JsonJacksonCodec(classLoader, codec.jsonCodec);
+        this.smileCodec = new JsonJacksonCodec(classLoader, codec.smileCodec);
+        this.smile = codec.smile;
+        this.compatible = codec.compatible;
+    }
+
+    private static boolean isSmile(ByteBuf buf) {
+        int index = buf.readerIndex();
+        if (buf.readableBytes() < SMILE_HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (buf.getByte(index + i) != SMILE_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        if (compatible) {
+            return compatibleDecoder;
+        }
+        return smile ? smileCodec.getValueDecoder() : jsonCodec.getValueDecoder();
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return smile ? smileCodec.getValueEncoder() : jsonCodec.getValueEncoder();
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return jsonCodec.getValueDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return jsonCodec.getValueEncoder();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return jsonCodec.getClassLoader();
+    }
+
+}
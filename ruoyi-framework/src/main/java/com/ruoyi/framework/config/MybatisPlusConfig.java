@@ -8,7 +8,9 @@ import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
 import com.ruoyi.framework.handler.CreateAndUpdateMetaObjectHandler;
+import com.ruoyi.framework.endpoint.DataPermissionEndpoint;
 import com.ruoyi.framework.interceptor.PlusDataPermissionInterceptor;
+import com.ruoyi.framework.manager.DataPermissionRegistry;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,8 +41,26 @@ public class MybatisPlusConfig {
     /**
      * 数据权限拦截器
      */
+    @Bean
     public PlusDataPermissionInterceptor dataPermissionInterceptor() {
-        return new PlusDataPermissionInterceptor();
+        return new PlusDataPermissionInterceptor(dataPermissionRegistry());
+    }
+
+    /**
+     * 数据权限注册表
+     */
+    @Bean
+    public DataPermissionRegistry dataPermissionRegistry() {
+        return new DataPermissionRegistry();
+    }
+
+    /**
+     * 数据权限监控端点
+     */
+    @Bean
+    public DataPermissionEndpoint dataPermissionEndpoint(DataPermissionRegistry dataPermissionRegistry,
+                                                         PlusDataPermissionInterceptor dataPermissionInterceptor) {
+        return new DataPermissionEndpoint(dataPermissionRegistry, dataPermissionInterceptor);
     }
 
     /**
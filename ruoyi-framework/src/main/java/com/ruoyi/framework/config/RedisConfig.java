@@ -2,18 +2,30 @@ package com.ruoyi.framework.config;
 
 import cn.hutool.core.util.ObjectUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ruoyi.common.utils.redis.CompressionCodec;
+import com.ruoyi.framework.codec.CompatibleJacksonCodec;
 import com.ruoyi.framework.config.properties.RedissonProperties;
 import com.ruoyi.framework.handler.KeyPrefixHandler;
 import com.ruoyi.framework.manager.PlusSpringCacheManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
 import org.redisson.codec.JsonJacksonCodec;
 import org.redisson.spring.starter.RedissonAutoConfigurationCustomizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * redis配置
@@ -32,12 +44,17 @@ public class RedisConfig {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
     @Bean
     public RedissonAutoConfigurationCustomizer redissonCustomizer() {
         return config -> {
             config.setThreads(redissonProperties.getThreads())
                 .setNettyThreads(redissonProperties.getNettyThreads())
-                .setCodec(new JsonJacksonCodec(objectMapper));
+                .setCodec(createCodec())
+                // lua 脚本使用 EVALSHA 执行 避免每次发送脚本内容
+                .setUseScriptCache(true);
             RedissonProperties.SingleServerConfig singleServerConfig = redissonProperties.getSingleServerConfig();
             if (ObjectUtil.isNotNull(singleServerConfig)) {
                 // 使用单机模式
@@ -72,12 +89,72 @@ public class RedisConfig {
         };
     }
 
+    /**
+     * 按配置创建编解码器 默认 JSON 与原有数据格式一致
+     */
+    private Codec createBaseCodec() {
+        boolean smile = redissonProperties.getCodecType() == RedissonProperties.CodecType.SMILE;
+        if (!smile && !redissonProperties.isCodecCompatible()) {
+            return new JsonJacksonCodec(objectMapper);
+        }
+        // 与 JSON 共用序列化配置 仅替换为 Smile 格式
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        log.info("redis 编码格式 => {} 兼容模式 => {}", redissonProperties.getCodecType(), redissonProperties.isCodecCompatible());
+        return new CompatibleJacksonCodec(objectMapper, smileMapper, smile, redissonProperties.isCodecCompatible());
+    }
+
+    /**
+     * 开启压缩时包装编解码器 全局仅解压 按缓存组名称或 key 前缀压缩写入
+     */
+    private Codec createCodec() {
+        Codec codec = createBaseCodec();
+        RedissonProperties.Compression compression = redissonProperties.getCompression();
+        if (!compression.isEnabled()) {
+            return codec;
+        }
+        log.info("redis 大对象压缩 阈值 => {} 字节 范围 => {}", compression.getThreshold(), compression.getNames());
+        return new CompressionCodec(codec, compression.getThreshold(), compression.getLevel(), compression.getNames());
+    }
+
+    /**
+     * 注册 redis 压缩指标
+     */
+    @Bean
+    public MeterBinder redisCompressionMetrics(RedissonClient redissonClient) {
+        return registry -> {
+            if (!(redissonClient.getConfig().getCodec() instanceof CompressionCodec)) {
+                return;
+            }
+            CompressionCodec.Stats stats = ((CompressionCodec) redissonClient.getConfig().getCodec()).getStats();
+            Gauge.builder("redis.codec.compression.ratio", stats, CompressionCodec.Stats::getRatio)
+                .description("压缩后大小与原大小之比")
+                .register(registry);
+            FunctionCounter.builder("redis.codec.compression.raw.bytes", stats, CompressionCodec.Stats::getRawBytes)
+                .description("压缩前字节数").baseUnit(BaseUnits.BYTES)
+                .register(registry);
+            FunctionCounter.builder("redis.codec.compression.compressed.bytes", stats, CompressionCodec.Stats::getCompressedBytes)
+                .description("压缩后字节数").baseUnit(BaseUnits.BYTES)
+                .register(registry);
+            FunctionTimer.builder("redis.codec.compress", stats,
+                    CompressionCodec.Stats::getCompressCount, CompressionCodec.Stats::getCompressNanos, TimeUnit.NANOSECONDS)
+                .description("压缩耗时")
+                .register(registry);
+            FunctionTimer.builder("redis.codec.decompress", stats,
+                    CompressionCodec.Stats::getDecompressCount, CompressionCodec.Stats::getDecompressNanos, TimeUnit.NANOSECONDS)
+                .description("解压耗时")
+                .register(registry);
+        };
+    }
+
     /**
      * 自定义缓存管理器 整合spring-cache
+     * 同时作为 MeterBinder 注册各缓存组指标
      */
     @Bean
-    public CacheManager cacheManager() {
-        return new PlusSpringCacheManager();
+    public PlusSpringCacheManager cacheManager() {
+        PlusSpringCacheManager cacheManager = new PlusSpringCacheManager();
+        cacheManager.setSyncClusterLock(redissonProperties.isCacheSyncClusterLock());
+        return cacheManager;
     }
 
     /**
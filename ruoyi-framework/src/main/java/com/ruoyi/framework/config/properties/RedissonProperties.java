@@ -7,6 +7,9 @@ import org.redisson.config.SubscriptionMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Redisson 配置属性
  *
@@ -32,6 +35,26 @@ public class RedissonProperties {
      */
     private int nettyThreads;
 
+    /**
+     * 缓存同步加载(@Cacheable(sync = true))时 是否使用分布式锁保证集群内仅一个节点加载
+     */
+    private boolean cacheSyncClusterLock = true;
+
+    /**
+     * 编码格式
+     */
+    private CodecType codecType = CodecType.JSON;
+
+    /**
+     * 编码兼容模式 同时读取 JSON 与 SMILE 两种格式 切换编码格式期间开启
+     */
+    private boolean codecCompatible;
+
+    /**
+     * 大对象压缩配置
+     */
+    private Compression compression = new Compression();
+
     /**
      * 单机服务配置
      */
@@ -42,6 +65,49 @@ public class RedissonProperties {
      */
     private ClusterServersConfig clusterServersConfig;
 
+    /**
+     * 编码格式
+     */
+    public enum CodecType {
+
+        /**
+         * JSON 文本
+         */
+        JSON,
+
+        /**
+         * Smile 二进制JSON
+         */
+        SMILE
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Compression {
+
+        /**
+         * 是否开启 开启后全局可读取压缩数据
+         */
+        private boolean enabled;
+
+        /**
+         * 压缩阈值 编码后超过该大小才压缩，单位：字节
+         */
+        private int threshold = 2048;
+
+        /**
+         * 压缩级别 1-9 越大压缩率越高 cpu 消耗越多
+         */
+        private int level = 1;
+
+        /**
+         * 启用压缩的缓存组名称或 key 前缀
+         */
+        private List<String> names = new ArrayList<>();
+
+    }
+
     @Data
     @NoArgsConstructor
     public static class SingleServerConfig {
@@ -0,0 +1,43 @@
+package com.ruoyi.framework.endpoint;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ruoyi.framework.interceptor.PlusDataPermissionInterceptor;
+import com.ruoyi.framework.manager.DataPermissionRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 数据权限监控端点
+ * <p>
+ * 访问 /actuator/datapermission 查看各方法的数据权限注解 sql改写次数与耗时分布 以及改写sql缓存命中情况
+ *
+ * @author Lion Li
+ */
+@RequiredArgsConstructor
+@Endpoint(id = "datapermission")
+public class DataPermissionEndpoint {
+
+    private final DataPermissionRegistry dataPermissionRegistry;
+
+    private final PlusDataPermissionInterceptor dataPermissionInterceptor;
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        CacheStats stats = dataPermissionInterceptor.getSqlCacheStats();
+        Map<String, Object> sqlCache = new LinkedHashMap<>();
+        sqlCache.put("size", dataPermissionInterceptor.getSqlCacheSize());
+        sqlCache.put("hitCount", stats.hitCount());
+        sqlCache.put("missCount", stats.missCount());
+        sqlCache.put("hitRate", stats.hitRate());
+        sqlCache.put("evictionCount", stats.evictionCount());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sqlCache", sqlCache);
+        result.put("methods", dataPermissionRegistry.getStatistics());
+        return result;
+    }
+
+}
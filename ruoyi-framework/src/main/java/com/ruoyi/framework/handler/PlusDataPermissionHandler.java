@@ -1,13 +1,11 @@
 package com.ruoyi.framework.handler;
 
-import cn.hutool.core.annotation.AnnotationUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.collection.ConcurrentHashSet;
 import cn.hutool.core.util.ArrayUtil;
-import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.ObjectUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ruoyi.common.annotation.DataColumn;
-import com.ruoyi.common.annotation.DataPermission;
 import com.ruoyi.common.core.domain.dto.RoleDTO;
 import com.ruoyi.common.core.domain.model.LoginUser;
 import com.ruoyi.common.enums.DataScopeType;
@@ -16,7 +14,9 @@ import com.ruoyi.common.helper.DataPermissionHelper;
 import com.ruoyi.common.helper.LoginHelper;
 import com.ruoyi.common.utils.StreamUtils;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.RedisUtils;
 import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.framework.manager.DataPermissionRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Expression;
@@ -31,11 +31,9 @@ import org.springframework.expression.common.TemplateParserContext;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
-import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * 数据权限过滤
@@ -47,14 +45,9 @@ import java.util.stream.Collectors;
 public class PlusDataPermissionHandler {
 
     /**
-     * 方法或类(名称) 与 注解的映射关系缓存
+     * 数据权限注册表
      */
-    private final Map<String, DataPermission> dataPermissionCacheMap = new ConcurrentHashMap<>();
-
-    /**
-     * 无效注解方法缓存用于快速返回
-     */
-    private final Set<String> invalidCacheSet = new ConcurrentHashSet<>();
+    private final DataPermissionRegistry dataPermissionRegistry;
 
     /**
      * spel 解析器
@@ -66,11 +59,25 @@ public class PlusDataPermissionHandler {
      */
     private final BeanResolver beanResolver = new BeanFactoryResolver(SpringUtils.getBeanFactory());
 
+    /**
+     * 已编译的数据权限条件缓存
+     * <p>
+     * key 为 方法id + 操作类型 + 用户权限指纹 value 为已解析的条件表达式(空则表示不过滤)
+     * 角色、角色部门关联、部门变更时 由 {@link DataPermissionHelper#refreshCache()} 通知各节点清空
+     */
+    private final Cache<String, Optional<Expression>> planCache = Caffeine.newBuilder()
+        .maximumSize(10000)
+        .expireAfterWrite(30, TimeUnit.MINUTES)
+        .build();
+
+    public PlusDataPermissionHandler(DataPermissionRegistry dataPermissionRegistry) {
+        this.dataPermissionRegistry = dataPermissionRegistry;
+        RedisUtils.subscribe(DataPermissionHelper.DATA_PERMISSION_REFRESH_TOPIC, String.class, msg -> planCache.invalidateAll());
+    }
 
     public Expression getSqlSegment(Expression where, String mappedStatementId, boolean isSelect) {
-        DataColumn[] dataColumns = findAnnotation(mappedStatementId);
+        DataColumn[] dataColumns = dataPermissionRegistry.getDataColumns(mappedStatementId);
         if (ArrayUtil.isEmpty(dataColumns)) {
-            invalidCacheSet.add(mappedStatementId);
             return where;
         }
         LoginUser currentUser = DataPermissionHelper.getVariable("user");
@@ -82,24 +89,95 @@ public class PlusDataPermissionHandler {
         if (LoginHelper.isAdmin()) {
             return where;
         }
+        String planKey = buildPlanKey(currentUser, mappedStatementId, isSelect);
+        Optional<Expression> plan;
+        if (StringUtils.isBlank(planKey)) {
+            plan = compilePlan(dataColumns, isSelect);
+        } else {
+            plan = planCache.get(planKey, key -> compilePlan(dataColumns, isSelect));
+        }
+        if (!plan.isPresent()) {
+            return where;
+        }
+        if (ObjectUtil.isNotNull(where)) {
+            return new AndExpression(where, plan.get());
+        } else {
+            return plan.get();
+        }
+    }
+
+    /**
+     * 获取当前用户在指定方法上的数据权限指纹
+     * <p>
+     * 指纹相同则同一条原始sql改写结果相同 可用于缓存改写后的sql
+     *
+     * @return 指纹 无法确定时返回空
+     */
+    public String getFingerprint(String mappedStatementId, boolean isSelect) {
+        LoginUser currentUser = DataPermissionHelper.getVariable("user");
+        if (ObjectUtil.isNull(currentUser)) {
+            currentUser = LoginHelper.getLoginUser();
+            if (ObjectUtil.isNull(currentUser)) {
+                return null;
+            }
+            DataPermissionHelper.setVariable("user", currentUser);
+        }
+        if (LoginHelper.isAdmin()) {
+            return mappedStatementId + ":admin";
+        }
+        return buildPlanKey(currentUser, mappedStatementId, isSelect);
+    }
+
+    /**
+     * 构造并解析数据过滤条件
+     */
+    private Optional<Expression> compilePlan(DataColumn[] dataColumns, boolean isSelect) {
         String dataFilterSql = buildDataFilter(dataColumns, isSelect);
         if (StringUtils.isBlank(dataFilterSql)) {
-            return where;
+            return Optional.empty();
         }
         try {
             Expression expression = CCJSqlParserUtil.parseExpression(dataFilterSql);
             // 数据权限使用单独的括号 防止与其他条件冲突
-            Parenthesis parenthesis = new Parenthesis(expression);
-            if (ObjectUtil.isNotNull(where)) {
-                return new AndExpression(where, parenthesis);
-            } else {
-                return parenthesis;
-            }
+            return Optional.of(new Parenthesis(expression));
         } catch (JSQLParserException e) {
             throw new ServiceException("数据权限解析异常 => " + e.getMessage());
         }
     }
 
+    /**
+     * 构造条件缓存key
+     * <p>
+     * 由角色及数据范围 以及模板中引用到的用户部门、用户id组成
+     * 上下文中存在自定义变量时无法确定条件是否一致 返回空表示不缓存
+     */
+    private String buildPlanKey(LoginUser user, String mappedStatementId, boolean isSelect) {
+        Map<String, Object> context = DataPermissionHelper.getContext();
+        if (context.size() > 1 || CollUtil.isEmpty(user.getRoles())) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(mappedStatementId).append(':').append(isSelect ? 's' : 'u');
+        boolean useDept = false;
+        boolean useUser = false;
+        List<RoleDTO> roles = new ArrayList<>(user.getRoles());
+        roles.sort(Comparator.comparing(RoleDTO::getRoleId));
+        for (RoleDTO role : roles) {
+            sb.append(':').append(role.getRoleId()).append('-').append(role.getDataScope());
+            DataScopeType type = DataScopeType.findCode(role.getDataScope());
+            if (ObjectUtil.isNotNull(type)) {
+                useDept = useDept || StringUtils.contains(type.getSqlTemplate(), "#user.deptId");
+                useUser = useUser || StringUtils.contains(type.getSqlTemplate(), "#user.userId");
+            }
+        }
+        if (useDept) {
+            sb.append(":d").append(user.getDeptId());
+        }
+        if (useUser) {
+            sb.append(":u").append(user.getUserId());
+        }
+        return sb.toString();
+    }
+
     /**
      * 构造数据过滤sql
      */
@@ -156,44 +234,10 @@ public class PlusDataPermissionHandler {
         return "";
     }
 
-    private DataColumn[] findAnnotation(String mappedStatementId) {
-        StringBuilder sb = new StringBuilder(mappedStatementId);
-        int index = sb.lastIndexOf(".");
-        String clazzName = sb.substring(0, index);
-        String methodName = sb.substring(index + 1, sb.length());
-        Class<?> clazz = ClassUtil.loadClass(clazzName);
-        List<Method> methods = Arrays.stream(ClassUtil.getDeclaredMethods(clazz))
-            .filter(method -> method.getName().equals(methodName)).collect(Collectors.toList());
-        DataPermission dataPermission;
-        // 获取方法注解
-        for (Method method : methods) {
-            dataPermission = dataPermissionCacheMap.get(mappedStatementId);
-            if (ObjectUtil.isNotNull(dataPermission)) {
-                return dataPermission.value();
-            }
-            if (AnnotationUtil.hasAnnotation(method, DataPermission.class)) {
-                dataPermission = AnnotationUtil.getAnnotation(method, DataPermission.class);
-                dataPermissionCacheMap.put(mappedStatementId, dataPermission);
-                return dataPermission.value();
-            }
-        }
-        dataPermission = dataPermissionCacheMap.get(clazz.getName());
-        if (ObjectUtil.isNotNull(dataPermission)) {
-            return dataPermission.value();
-        }
-        // 获取类注解
-        if (AnnotationUtil.hasAnnotation(clazz, DataPermission.class)) {
-            dataPermission = AnnotationUtil.getAnnotation(clazz, DataPermission.class);
-            dataPermissionCacheMap.put(clazz.getName(), dataPermission);
-            return dataPermission.value();
-        }
-        return null;
-    }
-
     /**
      * 是否为无效方法 无数据权限
      */
     public boolean isInvalid(String mappedStatementId) {
-        return invalidCacheSet.contains(mappedStatementId);
+        return ArrayUtil.isEmpty(dataPermissionRegistry.getDataColumns(mappedStatementId));
     }
 }
@@ -4,7 +4,14 @@ import com.baomidou.mybatisplus.core.plugins.InterceptorIgnoreHelper;
 import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
 import com.baomidou.mybatisplus.extension.parser.JsqlParserSupport;
 import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ruoyi.common.helper.DataPermissionHelper;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.RedisUtils;
 import com.ruoyi.framework.handler.PlusDataPermissionHandler;
+import com.ruoyi.framework.manager.DataPermissionRegistry;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.statement.delete.Delete;
 import net.sf.jsqlparser.statement.select.PlainSelect;
@@ -23,6 +30,7 @@ import org.apache.ibatis.session.RowBounds;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * 数据权限拦截器
@@ -32,7 +40,32 @@ import java.util.List;
  */
 public class PlusDataPermissionInterceptor extends JsqlParserSupport implements InnerInterceptor {
 
-    private final PlusDataPermissionHandler dataPermissionHandler = new PlusDataPermissionHandler();
+    /**
+     * 改写sql缓存最大占用 按字符数估算(约 32MB)
+     */
+    private static final long SQL_CACHE_MAX_WEIGHT = 16 * 1024 * 1024;
+
+    private final DataPermissionRegistry dataPermissionRegistry;
+
+    private final PlusDataPermissionHandler dataPermissionHandler;
+
+    /**
+     * 改写后的sql缓存
+     * <p>
+     * key 为 数据权限指纹(含方法id) + 原始sql value 为改写后的sql 命中时跳过sql解析
+     * 与数据权限条件缓存一同由 {@link DataPermissionHelper#refreshCache()} 通知清空
+     */
+    private final Cache<String, String> sqlCache = Caffeine.newBuilder()
+        .maximumWeight(SQL_CACHE_MAX_WEIGHT)
+        .<String, String>weigher((key, value) -> key.length() + value.length())
+        .recordStats()
+        .build();
+
+    public PlusDataPermissionInterceptor(DataPermissionRegistry dataPermissionRegistry) {
+        this.dataPermissionRegistry = dataPermissionRegistry;
+        this.dataPermissionHandler = new PlusDataPermissionHandler(dataPermissionRegistry);
+        RedisUtils.subscribe(DataPermissionHelper.DATA_PERMISSION_REFRESH_TOPIC, String.class, msg -> sqlCache.invalidateAll());
+    }
 
     @Override
     public void beforeQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
@@ -46,7 +79,7 @@ public class PlusDataPermissionInterceptor extends JsqlParserSupport implements
         }
         // 解析 sql 分配对应方法
         PluginUtils.MPBoundSql mpBs = PluginUtils.mpBoundSql(boundSql);
-        mpBs.sql(parserSingle(mpBs.sql(), ms.getId()));
+        mpBs.sql(rewrite(mpBs.sql(), ms.getId(), true, sql -> parserSingle(sql, ms.getId())));
     }
 
     @Override
@@ -58,11 +91,51 @@ public class PlusDataPermissionInterceptor extends JsqlParserSupport implements
             if (InterceptorIgnoreHelper.willIgnoreDataPermission(ms.getId())) {
                 return;
             }
+            if (dataPermissionHandler.isInvalid(ms.getId())) {
+                return;
+            }
             PluginUtils.MPBoundSql mpBs = mpSh.mPBoundSql();
-            mpBs.sql(parserMulti(mpBs.sql(), ms.getId()));
+            mpBs.sql(rewrite(mpBs.sql(), ms.getId(), false, sql -> parserMulti(sql, ms.getId())));
         }
     }
 
+    /**
+     * 改写sql 相同数据权限指纹下的相同sql直接使用缓存结果
+     */
+    private String rewrite(String sql, String mappedStatementId, boolean isSelect, Function<String, String> parser) {
+        long start = System.nanoTime();
+        String fingerprint = dataPermissionHandler.getFingerprint(mappedStatementId, isSelect);
+        String result;
+        boolean cached = false;
+        if (StringUtils.isNotBlank(fingerprint)) {
+            String key = fingerprint + "\n" + sql;
+            result = sqlCache.getIfPresent(key);
+            cached = result != null;
+            if (!cached) {
+                result = parser.apply(sql);
+                sqlCache.put(key, result);
+            }
+        } else {
+            result = parser.apply(sql);
+        }
+        dataPermissionRegistry.recordRewrite(mappedStatementId, System.nanoTime() - start, cached);
+        return result;
+    }
+
+    /**
+     * 获取改写sql缓存统计(命中、未命中、淘汰次数等)
+     */
+    public CacheStats getSqlCacheStats() {
+        return sqlCache.stats();
+    }
+
+    /**
+     * 获取改写sql缓存条目数
+     */
+    public long getSqlCacheSize() {
+        return sqlCache.estimatedSize();
+    }
+
     @Override
     protected void processSelect(Select select, int index, String sql, Object obj) {
         SelectBody selectBody = select.getSelectBody();
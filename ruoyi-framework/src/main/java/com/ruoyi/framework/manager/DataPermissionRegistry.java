@@ -0,0 +1,210 @@
+package com.ruoyi.framework.manager;
+
+import cn.hutool.core.annotation.AnnotationUtil;
+import cn.hutool.core.util.ClassUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruoyi.common.annotation.DataColumn;
+import com.ruoyi.common.annotation.DataPermission;
+import com.ruoyi.common.utils.spring.SpringUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据权限注册表
+ * <p>
+ * 启动时扫描全部 MappedStatement 构建 方法id 与 数据权限注解 的不可变映射
+ * 并记录各方法的sql改写次数与耗时分布
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class DataPermissionRegistry implements SmartInitializingSingleton {
+
+    private static final DataColumn[] EMPTY = new DataColumn[0];
+
+    /**
+     * 改写耗时分布区间上限(微秒) 最后一个区间为无上限
+     */
+    private static final long[] LATENCY_BOUNDS = {10, 50, 100, 500, 1000, 5000, 10000};
+
+    /**
+     * 方法id 与 数据权限注解 映射(无注解为空数组) 构建完成前为空
+     */
+    private volatile Map<String, DataColumn[]> registry;
+
+    /**
+     * 注册表之外的方法(运行时动态生成等) 解析结果缓存
+     */
+    private final Cache<String, DataColumn[]> fallbackCache = Caffeine.newBuilder()
+        .maximumSize(1000)
+        .build();
+
+    private final Map<String, StatementStats> statsMap = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<String, DataColumn[]> map = new HashMap<>();
+        for (SqlSessionFactory factory : SpringUtils.getBeansOfType(SqlSessionFactory.class).values()) {
+            for (String statementId : factory.getConfiguration().getMappedStatementNames()) {
+                // 跳过简称 只处理完整id
+                if (statementId.contains(".")) {
+                    map.computeIfAbsent(statementId, DataPermissionRegistry::resolve);
+                }
+            }
+        }
+        registry = Collections.unmodifiableMap(map);
+        log.info("数据权限注册表构建完成 方法数量: {} 数据权限方法数量: {}",
+            map.size(), map.values().stream().filter(columns -> columns.length > 0).count());
+    }
+
+    /**
+     * 获取方法的数据权限注解
+     *
+     * @param mappedStatementId 方法id
+     * @return 数据权限注解 无则返回空数组
+     */
+    public DataColumn[] getDataColumns(String mappedStatementId) {
+        Map<String, DataColumn[]> map = registry;
+        DataColumn[] dataColumns = map == null ? null : map.get(mappedStatementId);
+        if (dataColumns == null) {
+            dataColumns = fallbackCache.get(mappedStatementId, DataPermissionRegistry::resolve);
+        }
+        return dataColumns;
+    }
+
+    /**
+     * 记录一次sql改写
+     *
+     * @param mappedStatementId 方法id
+     * @param nanos             耗时(纳秒)
+     * @param cached            是否命中改写缓存
+     */
+    public void recordRewrite(String mappedStatementId, long nanos, boolean cached) {
+        statsMap.computeIfAbsent(mappedStatementId, k -> new StatementStats()).record(nanos, cached);
+    }
+
+    /**
+     * 获取注册表及改写统计 按改写总耗时倒序
+     */
+    public List<Map<String, Object>> getStatistics() {
+        Map<String, DataColumn[]> map = registry == null ? Collections.emptyMap() : registry;
+        List<Map<String, Object>> list = new ArrayList<>();
+        map.forEach((statementId, dataColumns) -> {
+            if (dataColumns.length > 0) {
+                list.add(buildStatistics(statementId, dataColumns));
+            }
+        });
+        statsMap.keySet().stream()
+            .filter(statementId -> !map.containsKey(statementId))
+            .forEach(statementId -> list.add(buildStatistics(statementId, getDataColumns(statementId))));
+        list.sort(Comparator.comparingLong((Map<String, Object> m) -> (Long) m.get("totalMicros")).reversed());
+        return list;
+    }
+
+    private Map<String, Object> buildStatistics(String statementId, DataColumn[] dataColumns) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statementId", statementId);
+        List<Map<String, String>> columns = new ArrayList<>();
+        for (DataColumn dataColumn : dataColumns) {
+            for (int i = 0; i < dataColumn.key().length && i < dataColumn.value().length; i++) {
+                Map<String, String> column = new LinkedHashMap<>();
+                column.put("key", dataColumn.key()[i]);
+                column.put("value", dataColumn.value()[i]);
+                columns.add(column);
+            }
+        }
+        result.put("columns", columns);
+        StatementStats stats = statsMap.get(statementId);
+        if (stats == null) {
+            stats = new StatementStats();
+        }
+        result.putAll(stats.snapshot());
+        return result;
+    }
+
+    /**
+     * 解析方法注解 方法上无注解则使用类注解
+     */
+    private static DataColumn[] resolve(String mappedStatementId) {
+        int index = mappedStatementId.lastIndexOf(".");
+        String clazzName = mappedStatementId.substring(0, index);
+        String methodName = mappedStatementId.substring(index + 1);
+        Class<?> clazz;
+        try {
+            clazz = ClassUtil.loadClass(clazzName);
+        } catch (Exception e) {
+            // 命名空间非接口类
+            return EMPTY;
+        }
+        for (Method method : ClassUtil.getDeclaredMethods(clazz)) {
+            if (method.getName().equals(methodName) && AnnotationUtil.hasAnnotation(method, DataPermission.class)) {
+                return AnnotationUtil.getAnnotation(method, DataPermission.class).value();
+            }
+        }
+        if (AnnotationUtil.hasAnnotation(clazz, DataPermission.class)) {
+            return AnnotationUtil.getAnnotation(clazz, DataPermission.class).value();
+        }
+        return EMPTY;
+    }
+
+    /**
+     * 单个方法的改写统计
+     */
+    private static final class StatementStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BOUNDS.length + 1];
+
+        StatementStats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, boolean cached) {
+            count.increment();
+            if (cached) {
+                cacheHits.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            int i = 0;
+            while (i < LATENCY_BOUNDS.length && micros > LATENCY_BOUNDS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            long total = count.sum();
+            long totalMicros = TimeUnit.NANOSECONDS.toMicros(totalNanos.sum());
+            result.put("rewriteCount", total);
+            result.put("cacheHits", cacheHits.sum());
+            result.put("totalMicros", totalMicros);
+            result.put("avgMicros", total == 0 ? 0 : totalMicros / total);
+            result.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                String bucket = i < LATENCY_BOUNDS.length ? "le_" + LATENCY_BOUNDS[i] + "us" : "gt_" + LATENCY_BOUNDS[i - 1] + "us";
+                histogram.put(bucket, buckets[i].sum());
+            }
+            result.put("histogram", histogram);
+            return result;
+        }
+    }
+
+}
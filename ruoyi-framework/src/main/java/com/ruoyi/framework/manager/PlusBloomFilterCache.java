@@ -0,0 +1,123 @@
+package com.ruoyi.framework.manager;
+
+import com.ruoyi.common.utils.redis.BatchCache;
+import com.ruoyi.common.utils.redis.KeyBloomFilter;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 布隆过滤缓存
+ * <p>
+ * 若缓存组已初始化 {@link KeyBloomFilter} 读取远程缓存前先查询过滤器 key 一定不存在时
+ * 直接返回不存在时的值 不读取远程缓存 不执行加载 也不写入空值缓存
+ * 未初始化过滤器的缓存组不做任何处理
+ *
+ * @author Lion Li
+ */
+@SuppressWarnings("unchecked")
+public class PlusBloomFilterCache implements BatchCache {
+
+    private final BatchCache delegate;
+
+    public PlusBloomFilterCache(BatchCache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper absent = absent(key);
+        return absent != null ? absent : delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper absent = absent(key);
+        if (absent != null) {
+            return (T) absent.get();
+        }
+        return delegate.get(key, valueLoader);
+    }
+
+    /**
+     * key 一定不存在时返回不存在时的值
+     */
+    private ValueWrapper absent(Object key) {
+        KeyBloomFilter filter = KeyBloomFilter.getFilter(getName());
+        if (filter != null && !filter.mightContain(key)) {
+            return new SimpleValueWrapper(filter.getAbsentValue());
+        }
+        return null;
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<?, ?> map) {
+        delegate.putAll(map);
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        delegate.evictAll(keys);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.ruoyi.framework.manager;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 缓存加载方法
+ * <p>
+ * {@link PlusSyncCache} 未命中但未执行加载 而是等待其他线程或节点加载完成时 调用 {@link #onWait()}
+ * 装饰缓存包装加载方法时需转发该通知
+ *
+ * @author Lion Li
+ */
+interface PlusCacheLoader<T> extends Callable<T> {
+
+    /**
+     * 等待其他线程或节点加载完成
+     */
+    void onWait();
+
+    /**
+     * 转发等待通知
+     *
+     * @param valueLoader 加载方法
+     */
+    static void notifyWait(Callable<?> valueLoader) {
+        if (valueLoader instanceof PlusCacheLoader) {
+            ((PlusCacheLoader<?>) valueLoader).onWait();
+        }
+    }
+
+}
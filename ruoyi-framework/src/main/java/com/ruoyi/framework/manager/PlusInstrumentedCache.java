@@ -0,0 +1,253 @@
+package com.ruoyi.framework.manager;
+
+import com.ruoyi.common.utils.redis.BatchCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMap;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计缓存
+ * <p>
+ * 记录命中、未命中、写入、删除次数 及 加载耗时
+ * 指标名称与 Micrometer 内置缓存指标保持一致 并以 cache 标签区分缓存组
+ * 同步加载时等待其他线程或节点加载的请求计为未命中 并单独记录等待次数
+ * 缓存数量需查询 redis 结果缓存数秒 避免每次采集都查询
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class PlusInstrumentedCache implements BatchCache {
+
+    /**
+     * 缓存数量的缓存时间(毫秒)
+     */
+    private static final long SIZE_CACHE_MILLIS = 5000;
+
+    private final BatchCache delegate;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+
+    private volatile double size = Double.NaN;
+    private volatile long sizeExpireAt;
+
+    public PlusInstrumentedCache(BatchCache delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 注册 Micrometer 指标
+     *
+     * @param registry 指标注册器
+     */
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("cache", getName(), "cacheManager", "cacheManager");
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum).tags(tags).tag("result", "hit")
+            .description("缓存命中次数").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum).tags(tags).tag("result", "miss")
+            .description("缓存未命中次数").register(registry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::sum).tags(tags)
+            .description("缓存写入次数").register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum).tags(tags)
+            .description("缓存删除次数").register(registry);
+        FunctionCounter.builder("cache.load.waits", waits, LongAdder::sum).tags(tags)
+            .description("等待其他线程或节点加载次数").register(registry);
+        FunctionCounter.builder("cache.load.failures", loadFailures, LongAdder::sum).tags(tags)
+            .description("缓存加载失败次数").register(registry);
+        FunctionTimer.builder("cache.load", this, c -> c.loads.sum(), c -> c.loadNanos.sum(), TimeUnit.NANOSECONDS)
+            .tags(tags).description("缓存加载耗时").register(registry);
+        Gauge.builder("cache.size", this, PlusInstrumentedCache::estimatedSize).tags(tags)
+            .description("缓存数量(近似值)").register(registry);
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requestCount = hitCount + missCount;
+        long loadCount = loads.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cacheName", getName());
+        result.put("size", (long) estimatedSize());
+        result.put("hitCount", hitCount);
+        result.put("missCount", missCount);
+        result.put("waitCount", waits.sum());
+        result.put("hitRate", requestCount == 0 ? 0D : (double) hitCount / requestCount);
+        result.put("putCount", puts.sum());
+        result.put("evictionCount", evictions.sum());
+        result.put("loadCount", loadCount);
+        result.put("loadFailureCount", loadFailures.sum());
+        result.put("avgLoadMillis", loadCount == 0 ? 0D : loadNanos.sum() / 1e6 / loadCount);
+        result.put("maxLoadMillis", maxLoadNanos.get() / 1e6);
+        return result;
+    }
+
+    /**
+     * 远程缓存数量 过期未清理的数据也会计入 结果缓存 {@link #SIZE_CACHE_MILLIS} 毫秒
+     */
+    private double estimatedSize() {
+        long now = System.currentTimeMillis();
+        if (now < sizeExpireAt) {
+            return size;
+        }
+        sizeExpireAt = now + SIZE_CACHE_MILLIS;
+        size = querySize();
+        return size;
+    }
+
+    private double querySize() {
+        if (!(delegate.getNativeCache() instanceof RMap)) {
+            return Double.NaN;
+        }
+        try {
+            return ((RMap<?, ?>) delegate.getNativeCache()).size();
+        } catch (Exception e) {
+            log.warn("获取缓存数量失败 => {}", getName(), e);
+            return Double.NaN;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return record(delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = delegate.get(key, type);
+        // 无法区分 空值 与 未命中 按是否为空统计
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = {false};
+        boolean[] waited = {false};
+        T value = delegate.get(key, new PlusCacheLoader<T>() {
+            @Override
+            public T call() throws Exception {
+                loaded[0] = true;
+                long start = System.nanoTime();
+                try {
+                    return valueLoader.call();
+                } catch (Exception e) {
+                    loadFailures.increment();
+                    throw e;
+                } finally {
+                    long nanos = System.nanoTime() - start;
+                    loads.increment();
+                    loadNanos.add(nanos);
+                    maxLoadNanos.accumulateAndGet(nanos, Math::max);
+                }
+            }
+
+            @Override
+            public void onWait() {
+                waited[0] = true;
+            }
+        });
+        if (waited[0] && !loaded[0]) {
+            waits.increment();
+        }
+        (loaded[0] || waited[0] ? misses : hits).increment();
+        return value;
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        Map<Object, ValueWrapper> result = delegate.getAll(keys);
+        hits.add(result.size());
+        misses.add(Math.max(keys.size() - result.size(), 0));
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> map) {
+        delegate.putAll(map);
+        puts.add(map.size());
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        delegate.evictAll(keys);
+        evictions.add(keys.size());
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        puts.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper wrapper = delegate.putIfAbsent(key, value);
+        if (wrapper == null) {
+            puts.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        evictions.increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        if (present) {
+            evictions.increment();
+        }
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private ValueWrapper record(ValueWrapper wrapper) {
+        (wrapper != null ? hits : misses).increment();
+        return wrapper;
+    }
+
+}
@@ -0,0 +1,355 @@
+package com.ruoyi.framework.manager;
+
+import cn.hutool.core.util.ClassUtil;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.utils.StreamUtils;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.BatchCache;
+import com.ruoyi.common.utils.redis.RedisStreamUtils;
+import com.ruoyi.common.utils.redis.RedisUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 二级缓存
+ * <p>
+ * 本地 Caffeine 缓存 + Redisson 远程缓存
+ * 读取优先本地 写入、删除、清空时 通过 redis stream 广播通知其他节点清除本地缓存
+ * 与通道消息不同 连接短暂断开期间的通知在重连后继续读取 所有缓存组共用一个 stream 与读取线程
+ * 通知消息为 节点标识 + 缓存名 + 换行分隔的 key 无 key 表示清空
+ * <p>
+ * 本地缓存以 key 的字符串形式存储 同一缓存组内 key 的字符串形式需唯一
+ * 不可变值(字符串、基本类型包装类等)直接存储 其余值写入本地时编码再解码一次 存储与调用方无关的快照 读取时直接返回
+ * 快照中的集合为只读集合 元素对象由所有读取方共享 调用方不可修改
+ * 直接删除 redis key 时通过 {@link RedisUtils#clearNearCaches()} 清空所有节点的全部本地缓存 通知的缓存名为 *
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class PlusNearCache implements BatchCache {
+
+    /**
+     * 本地缓存失效通知 stream key
+     */
+    public static final String NEAR_CACHE_STREAM = CacheConstants.NEAR_CACHE_STREAM;
+
+    /**
+     * 失效通知 stream 最大长度 仅需覆盖断线重连期间的通知
+     */
+    private static final int NEAR_CACHE_STREAM_MAX_LEN = CacheConstants.NEAR_CACHE_STREAM_MAX_LEN;
+
+    /**
+     * 节点标识 用于忽略自身发出的通知
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    private static final char SEPARATOR = '\n';
+
+    private final BatchCache delegate;
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalValue> local;
+
+    /**
+     * 本地缓存版本 收到失效通知时递增 防止读取远程期间发生的失效被旧值覆盖
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    public PlusNearCache(BatchCache delegate, long localTtl, int localMaxSize) {
+        this.delegate = delegate;
+        this.local = Caffeine.newBuilder()
+            .expireAfterWrite(localTtl, TimeUnit.MILLISECONDS)
+            .maximumSize(localMaxSize)
+            .build();
+        // 未读通知已被裁剪时 无法确定哪些 key 失效 清空本地缓存
+        RedisStreamUtils.subscribe(NEAR_CACHE_STREAM, this::onMessage, () -> invalidateLocal(null));
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = getLocal(localKey);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        long current = version.get();
+        wrapper = delegate.get(key);
+        if (wrapper != null) {
+            putLocal(localKey, wrapper, current);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = getLocal(localKey);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        long current = version.get();
+        T value = delegate.get(key, valueLoader);
+        putLocal(localKey, new SimpleValueWrapper(value), current);
+        return value;
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        Map<Object, ValueWrapper> result = new HashMap<>(keys.size());
+        List<Object> missKeys = new ArrayList<>();
+        for (Object key : keys) {
+            ValueWrapper wrapper = getLocal(localKey(key));
+            if (wrapper != null) {
+                result.put(key, wrapper);
+            } else {
+                missKeys.add(key);
+            }
+        }
+        if (!missKeys.isEmpty()) {
+            long current = version.get();
+            Map<Object, ValueWrapper> remote = delegate.getAll(missKeys);
+            remote.forEach((key, wrapper) -> putLocal(localKey(key), wrapper, current));
+            result.putAll(remote);
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> map) {
+        delegate.putAll(map);
+        invalidateLocalAll(map.keySet());
+        publishAll(map.keySet());
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        delegate.evictAll(keys);
+        invalidateLocalAll(keys);
+        publishAll(keys);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        invalidateLocal(key);
+        publish(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper wrapper = delegate.putIfAbsent(key, value);
+        invalidateLocal(key);
+        publish(key);
+        return wrapper;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        invalidateLocal(key);
+        publish(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        invalidateLocal(key);
+        publish(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        invalidateLocal(null);
+        publish(null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        invalidateLocal(null);
+        publish(null);
+        return present;
+    }
+
+    private ValueWrapper getLocal(String localKey) {
+        LocalValue localValue = local.getIfPresent(localKey);
+        return localValue == null ? null : new SimpleValueWrapper(localValue.value);
+    }
+
+    private void putLocal(String localKey, ValueWrapper wrapper, long expectedVersion) {
+        Object value = wrapper.get();
+        LocalValue localValue;
+        if (isImmutable(value)) {
+            localValue = new LocalValue(value);
+        } else {
+            try {
+                // 编码后解码一次 得到与调用方无关的快照
+                localValue = new LocalValue(freeze(decode(encode(value))));
+            } catch (Exception e) {
+                log.warn("本地缓存编码失败 不缓存 => {}", getName(), e);
+                return;
+            }
+        }
+        local.put(localKey, localValue);
+        // 读取远程期间收到失效通知 丢弃可能过期的值
+        if (version.get() != expectedVersion) {
+            local.invalidate(localKey);
+        }
+    }
+
+    private void invalidateLocal(Object key) {
+        version.incrementAndGet();
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(localKey(key));
+        }
+    }
+
+    private void invalidateLocalAll(Collection<?> keys) {
+        version.incrementAndGet();
+        local.invalidateAll(StreamUtils.toList(keys, PlusNearCache::localKey));
+    }
+
+    private void publishAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        publishMessage(StreamUtils.join(keys, PlusNearCache::localKey, String.valueOf(SEPARATOR)));
+    }
+
+    private void publish(Object key) {
+        publishMessage(key == null ? "" : localKey(key));
+    }
+
+    private void publishMessage(String keys) {
+        try {
+            RedisStreamUtils.publish(NEAR_CACHE_STREAM, NODE_ID + SEPARATOR + getName() + SEPARATOR + keys,
+                NEAR_CACHE_STREAM_MAX_LEN);
+        } catch (Exception e) {
+            log.error("本地缓存失效通知发送失败 => {}", getName(), e);
+        }
+    }
+
+    private void onMessage(String msg) {
+        int index = msg.indexOf(SEPARATOR);
+        int nameEnd = index < 0 ? -1 : msg.indexOf(SEPARATOR, index + 1);
+        if (nameEnd < 0 || NODE_ID.equals(msg.substring(0, index))
+            || !isTarget(msg.substring(index + 1, nameEnd))) {
+            return;
+        }
+        String keys = msg.substring(nameEnd + 1);
+        version.incrementAndGet();
+        if (keys.isEmpty()) {
+            local.invalidateAll();
+        } else {
+            local.invalidateAll(Arrays.asList(StringUtils.split(keys, SEPARATOR)));
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private boolean isTarget(String name) {
+        return getName().equals(name) || CacheConstants.NEAR_CACHE_ALL.equals(name);
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Enum
+            || value instanceof BigDecimal || value instanceof BigInteger || ClassUtil.isBasicType(value.getClass());
+    }
+
+    /**
+     * 集合转为只读集合 嵌套集合同样处理
+     */
+    @SuppressWarnings("unchecked")
+    private static Object freeze(Object value) {
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<Object>) value).size());
+            ((List<Object>) value).forEach(item -> list.add(freeze(item)));
+            return Collections.unmodifiableList(list);
+        }
+        if (value instanceof Set) {
+            Set<Object> set = new LinkedHashSet<>();
+            ((Set<Object>) value).forEach(item -> set.add(freeze(item)));
+            return Collections.unmodifiableSet(set);
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            ((Map<Object, Object>) value).forEach((k, v) -> map.put(k, freeze(v)));
+            return Collections.unmodifiableMap(map);
+        }
+        return value;
+    }
+
+    private static byte[] encode(Object value) throws IOException {
+        ByteBuf buf = RedisUtils.getClient().getConfig().getCodec().getValueEncoder().encode(value);
+        try {
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static Object decode(byte[] bytes) throws IOException {
+        ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+        try {
+            return RedisUtils.getClient().getConfig().getCodec().getValueDecoder().decode(buf, null);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * 本地缓存值 区分未缓存与缓存的空值
+     */
+    private static class LocalValue {
+
+        private final Object value;
+
+        private LocalValue(Object value) {
+            this.value = value;
+        }
+
+    }
+
+}
@@ -0,0 +1,238 @@
+package com.ruoyi.framework.manager;
+
+import cn.hutool.core.collection.CollUtil;
+import com.ruoyi.common.utils.redis.BatchCache;
+import com.ruoyi.common.utils.redis.RedisUtils;
+import org.redisson.api.RBatch;
+import org.redisson.api.RMap;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RMapCacheAsync;
+import org.redisson.spring.cache.CacheConfig;
+import org.redisson.spring.cache.RedissonCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 支持批量操作的 RedissonCache
+ * <p>
+ * 批量读取使用 HMGET 批量删除使用 HDEL 批量写入使用 HMSET 或 pipeline
+ * <p>
+ * 配置空值过期时间时 空值单独存储于 缓存组名称 + {@link #NULL_SUFFIX} 并使用较短的过期时间
+ * 主缓存未命中时再读取空值缓存 不改变主缓存的存储结构 写入非空值时删除对应的空值标记
+ *
+ * @author Lion Li
+ */
+public class PlusRedissonCache extends RedissonCache implements BatchCache {
+
+    /**
+     * 空值缓存名称后缀
+     */
+    public static final String NULL_SUFFIX = ":null";
+
+    /**
+     * 空值缓存存储的值 仅用于标记存在
+     */
+    private static final Integer NULL_MARKER = 0;
+
+    private final RMap<Object, Object> map;
+
+    private final CacheConfig config;
+
+    private final boolean allowNullValues;
+
+    /**
+     * 空值缓存 未配置空值过期时间为 null
+     */
+    private final RMapCache<Object, Object> nullMap;
+
+    /**
+     * 空值过期时间(毫秒)
+     */
+    private final long nullTtl;
+
+    public PlusRedissonCache(RMap<Object, Object> map, boolean allowNullValues, long nullTtl) {
+        super(map, allowNullValues);
+        this.map = map;
+        this.config = null;
+        this.allowNullValues = allowNullValues;
+        this.nullTtl = nullTtl;
+        this.nullMap = createNullMap(map.getName(), allowNullValues, nullTtl);
+    }
+
+    public PlusRedissonCache(RMapCache<Object, Object> mapCache, CacheConfig config, boolean allowNullValues, long nullTtl) {
+        super(mapCache, config, allowNullValues);
+        this.map = mapCache;
+        this.config = config;
+        this.allowNullValues = allowNullValues;
+        this.nullTtl = nullTtl;
+        this.nullMap = createNullMap(mapCache.getName(), allowNullValues, nullTtl);
+    }
+
+    private static RMapCache<Object, Object> createNullMap(String name, boolean allowNullValues, long nullTtl) {
+        if (!allowNullValues || nullTtl <= 0) {
+            return null;
+        }
+        return RedisUtils.getClient().getMapCache(name + NULL_SUFFIX);
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = super.get(key);
+        if (wrapper == null && nullMap != null && nullMap.containsKey(key)) {
+            return new SimpleValueWrapper(null);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (nullMap != null && nullMap.containsKey(key)) {
+            return null;
+        }
+        return super.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null && nullMap != null) {
+            map.fastRemove(key);
+            nullMap.fastPut(key, NULL_MARKER, nullTtl, TimeUnit.MILLISECONDS);
+            return;
+        }
+        super.put(key, value);
+        if (nullMap != null) {
+            nullMap.fastRemove(key);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper wrapper = super.putIfAbsent(key, value);
+        if (wrapper == null && value != null && nullMap != null) {
+            nullMap.fastRemove(key);
+        }
+        return wrapper;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        if (nullMap != null) {
+            nullMap.fastRemove(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = super.evictIfPresent(key);
+        if (nullMap != null) {
+            present |= nullMap.fastRemove(key) > 0;
+        }
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (nullMap != null) {
+            nullMap.delete();
+        }
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return Collections.emptyMap();
+        }
+        // 反序列化后的 key 类型可能变化(例如 Long 变为 Integer) 按字符串形式映射回原 key
+        Map<String, Object> keyMap = new HashMap<>(keys.size());
+        for (Object key : keys) {
+            keyMap.put(String.valueOf(key), key);
+        }
+        Map<Object, Object> values = map.getAll(new HashSet<>(keys));
+        Map<Object, ValueWrapper> result = new HashMap<>(values.size());
+        values.forEach((key, value) -> {
+            if (value != null) {
+                result.put(keyMap.getOrDefault(String.valueOf(key), key), new SimpleValueWrapper(fromStoreValue(value)));
+            }
+        });
+        if (nullMap != null && result.size() < keyMap.size()) {
+            Set<Object> missKeys = new HashSet<>();
+            for (Object key : keys) {
+                if (!result.containsKey(key)) {
+                    missKeys.add(key);
+                }
+            }
+            nullMap.getAll(missKeys).keySet().forEach(key ->
+                result.put(keyMap.getOrDefault(String.valueOf(key), key), new SimpleValueWrapper(null)));
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> values) {
+        if (CollUtil.isEmpty(values)) {
+            return;
+        }
+        Map<Object, Object> storeValues = new HashMap<>(values.size());
+        Map<Object, Object> nullValues = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (value == null && !allowNullValues) {
+                return;
+            }
+            if (value == null && nullMap != null) {
+                nullValues.put(key, NULL_MARKER);
+                return;
+            }
+            storeValues.put(key, toStoreValue(value));
+        });
+        if (!nullValues.isEmpty()) {
+            map.fastRemove(nullValues.keySet().toArray());
+            nullMap.putAll(nullValues, nullTtl, TimeUnit.MILLISECONDS);
+        }
+        if (storeValues.isEmpty()) {
+            return;
+        }
+        if (nullMap != null) {
+            nullMap.fastRemove(storeValues.keySet().toArray());
+        }
+        if (config == null || (config.getTTL() == 0 && config.getMaxIdleTime() == 0)) {
+            map.putAll(storeValues);
+            return;
+        }
+        // 带过期时间的写入 单次往返批量提交
+        RBatch batch = RedisUtils.getClient().createBatch();
+        RMapCacheAsync<Object, Object> mapCache = batch.getMapCache(map.getName(), map.getCodec());
+        storeValues.forEach((key, value) -> mapCache.fastPutAsync(key, value,
+            config.getTTL(), TimeUnit.MILLISECONDS, config.getMaxIdleTime(), TimeUnit.MILLISECONDS));
+        batch.execute();
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        if (CollUtil.isNotEmpty(keys)) {
+            map.fastRemove(keys.toArray());
+            if (nullMap != null) {
+                nullMap.fastRemove(keys.toArray());
+            }
+        }
+    }
+
+}
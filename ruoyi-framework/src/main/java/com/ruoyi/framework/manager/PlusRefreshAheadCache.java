@@ -0,0 +1,274 @@
+package com.ruoyi.framework.manager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruoyi.common.utils.StreamUtils;
+import com.ruoyi.common.utils.redis.BatchCache;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RMapCache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提前刷新缓存
+ * <p>
+ * 处理 {@code @Cacheable(sync = true)} 读取命中时 若数据已存活超过 ttl * refreshRatio
+ * 则在后台线程池中重新加载并写回 读取方直接返回旧值 不等待加载
+ * <p>
+ * 本节点写入的数据直接记录过期时间 其他节点写入的数据首次读取时在后台查询剩余存活时间
+ * 同一 key 在本节点内同时仅有一个刷新任务 线程池满时放弃刷新 数据按原过期时间失效
+ * 使用分布式锁时 刷新前尝试获取与同步加载相同的锁 获取失败说明其他节点正在加载 放弃本次刷新
+ * <p>
+ * 后台加载不在原请求线程执行 加载方法不应依赖登录用户等线程上下文
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@SuppressWarnings("unchecked")
+public class PlusRefreshAheadCache implements BatchCache {
+
+    /**
+     * 本地记录过期时间的最大数量
+     */
+    private static final int MAX_TRACKED_KEYS = 10000;
+
+    /**
+     * 分布式锁持有时间(毫秒) 防止节点宕机导致锁无法释放
+     */
+    private static final long LOCK_LEASE_TIME = 10000;
+
+    private final BatchCache delegate;
+
+    private final RMapCache<Object, Object> mapCache;
+
+    /**
+     * 缓存过期时间(毫秒)
+     */
+    private final long ttl;
+
+    /**
+     * 剩余存活时间小于该值时刷新(毫秒)
+     */
+    private final long refreshRemainTime;
+
+    private final Executor executor;
+
+    private final boolean clusterLock;
+
+    /**
+     * key 与 过期时间戳
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<String, Long> expireAtMap;
+
+    /**
+     * 刷新或查询中的 key
+     */
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param delegate     被装饰缓存 原生缓存需为 RMapCache
+     * @param ttl          缓存过期时间(毫秒)
+     * @param refreshRatio 存活时间达到 ttl 的该比例后刷新 取值 (0, 1)
+     * @param executor     刷新线程池
+     * @param clusterLock  是否使用分布式锁 保证集群内仅一个节点刷新
+     */
+    public PlusRefreshAheadCache(BatchCache delegate, long ttl, double refreshRatio, Executor executor, boolean clusterLock) {
+        this.delegate = delegate;
+        this.mapCache = (RMapCache<Object, Object>) delegate.getNativeCache();
+        this.ttl = ttl;
+        this.refreshRemainTime = (long) (ttl * (1 - refreshRatio));
+        this.executor = executor;
+        this.clusterLock = clusterLock;
+        this.expireAtMap = Caffeine.newBuilder()
+            .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+            .maximumSize(MAX_TRACKED_KEYS)
+            .build();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = {false};
+        T value = delegate.get(key, new PlusCacheLoader<T>() {
+            @Override
+            public T call() throws Exception {
+                loaded[0] = true;
+                return valueLoader.call();
+            }
+
+            @Override
+            public void onWait() {
+                PlusCacheLoader.notifyWait(valueLoader);
+            }
+        });
+        if (loaded[0]) {
+            recordWrite(key);
+        } else {
+            checkRefresh(key, valueLoader);
+        }
+        return value;
+    }
+
+    private void checkRefresh(Object key, Callable<?> valueLoader) {
+        Long expireAt = expireAtMap.getIfPresent(localKey(key));
+        if (expireAt == null) {
+            // 其他节点写入 查询剩余存活时间
+            submit(key, () -> {
+                long remain = mapCache.remainTimeToLive(key);
+                if (remain > 0) {
+                    expireAtMap.put(localKey(key), System.currentTimeMillis() + remain);
+                } else if (remain == -1) {
+                    // 未设置过期时间 无需刷新
+                    expireAtMap.put(localKey(key), Long.MAX_VALUE);
+                }
+            });
+        } else if (expireAt - System.currentTimeMillis() <= refreshRemainTime) {
+            submit(key, () -> refresh(key, valueLoader));
+        }
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader) {
+        RLock lock = null;
+        try {
+            if (clusterLock) {
+                lock = mapCache.getLock(key);
+                if (!lock.tryLock(0, LOCK_LEASE_TIME, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+            // 可能已被删除或已被其他节点刷新
+            long remain = mapCache.remainTimeToLive(key);
+            if (remain == -2) {
+                return;
+            }
+            if (remain > refreshRemainTime) {
+                expireAtMap.put(localKey(key), System.currentTimeMillis() + remain);
+                return;
+            }
+            Object value = valueLoader.call();
+            delegate.put(key, value);
+            recordWrite(key);
+            log.debug("缓存提前刷新完成 => {}:{}", getName(), key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("缓存提前刷新失败 => {}:{}", getName(), key, e);
+        } finally {
+            if (lock != null && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void submit(Object key, Runnable task) {
+        String localKey = localKey(key);
+        if (!running.add(localKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    running.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.remove(localKey);
+        }
+    }
+
+    private void recordWrite(Object key) {
+        // 写入后重新计算过期时间
+        expireAtMap.put(localKey(key), System.currentTimeMillis() + ttl);
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<?, ?> map) {
+        delegate.putAll(map);
+        map.keySet().forEach(this::recordWrite);
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        delegate.evictAll(keys);
+        expireAtMap.invalidateAll(StreamUtils.toList(keys, PlusRefreshAheadCache::localKey));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        recordWrite(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper wrapper = delegate.putIfAbsent(key, value);
+        if (wrapper == null) {
+            recordWrite(key);
+        }
+        return wrapper;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        expireAtMap.invalidate(localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        expireAtMap.invalidate(localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        expireAtMap.invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        expireAtMap.invalidateAll();
+        return present;
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+}
@@ -15,22 +15,26 @@
  */
 package com.ruoyi.framework.manager;
 
+import com.ruoyi.common.utils.redis.BatchCache;
 import com.ruoyi.common.utils.redis.RedisUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.redisson.api.RMap;
 import org.redisson.api.RMapCache;
 import org.redisson.spring.cache.CacheConfig;
-import org.redisson.spring.cache.RedissonCache;
 import org.springframework.boot.convert.DurationStyle;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.util.StringUtils;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@link org.springframework.cache.CacheManager} implementation
@@ -38,12 +42,18 @@ import java.util.concurrent.ConcurrentMap;
  * <p>
  * 修改 RedissonSpringCacheManager 源码
  * 重写 cacheName 处理方法 支持多参数
+ * 支持配置本地缓存 组成二级缓存
+ * 支持 sync 同步加载 同一 key 仅一个线程加载
+ * 支持批量读取、写入、删除 {@link BatchCache}
+ * 支持按缓存组统计命中率、加载耗时等指标 {@link PlusInstrumentedCache}
+ * 支持过期前提前异步刷新 {@link PlusRefreshAheadCache}
+ * 支持空值单独设置过期时间 {@link PlusRedissonCache} 及布隆过滤器防穿透 {@link PlusBloomFilterCache}
  *
  * @author Nikita Koksharov
  *
  */
 @SuppressWarnings("unchecked")
-public class PlusSpringCacheManager implements CacheManager {
+public class PlusSpringCacheManager implements CacheManager, MeterBinder {
 
     private boolean dynamic = true;
 
@@ -51,8 +61,26 @@ public class PlusSpringCacheManager implements CacheManager {
 
     private boolean transactionAware = true;
 
+    private boolean syncClusterLock = true;
+
+    /**
+     * 本地缓存默认最大长度
+     */
+    private static final int DEFAULT_LOCAL_MAX_SIZE = 10000;
+
+    /**
+     * 提前刷新线程池 队列满时放弃刷新 由数据正常过期兜底
+     */
+    private static final ThreadPoolExecutor REFRESH_EXECUTOR = new ThreadPoolExecutor(1, 4,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(1000),
+        new BasicThreadFactory.Builder().namingPattern("cache-refresh-%d").daemon(true).build(),
+        new ThreadPoolExecutor.DiscardPolicy());
+
     Map<String, CacheConfig> configMap = new ConcurrentHashMap<>();
     ConcurrentMap<String, Cache> instanceMap = new ConcurrentHashMap<>();
+    ConcurrentMap<String, PlusInstrumentedCache> metricsMap = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
 
     /**
      * Creates CacheManager supplied by Redisson instance
@@ -84,6 +112,17 @@ public class PlusSpringCacheManager implements CacheManager {
         this.transactionAware = transactionAware;
     }
 
+    /**
+     * 同步加载(sync = true)时 是否使用分布式锁保证集群内仅一个节点加载
+     * <p>
+     * 默认为 <code>true</code>
+     *
+     * @param syncClusterLock 使用分布式锁 if <code>true</code>
+     */
+    public void setSyncClusterLock(boolean syncClusterLock) {
+        this.syncClusterLock = syncClusterLock;
+    }
+
     /**
      * Defines 'fixed' cache names.
      * A new cache instance will not be created in dynamic for non-defined names.
@@ -145,42 +184,106 @@ public class PlusSpringCacheManager implements CacheManager {
         if (array.length > 3) {
             config.setMaxSize(Integer.parseInt(array[3]));
         }
+        long localTtl = 0;
+        int localMaxSize = DEFAULT_LOCAL_MAX_SIZE;
+        if (array.length > 4) {
+            localTtl = DurationStyle.detectAndParse(array[4]).toMillis();
+        }
+        if (array.length > 5) {
+            localMaxSize = Integer.parseInt(array[5]);
+        }
+        double refreshRatio = 0;
+        if (array.length > 6) {
+            refreshRatio = Double.parseDouble(array[6]);
+            if (refreshRatio < 0 || refreshRatio >= 1) {
+                throw new IllegalArgumentException("refreshRatio must be in [0, 1): " + array[6]);
+            }
+        }
+        long nullTtl = 0;
+        if (array.length > 7) {
+            nullTtl = DurationStyle.detectAndParse(array[7]).toMillis();
+        }
 
         if (config.getMaxIdleTime() == 0 && config.getTTL() == 0 && config.getMaxSize() == 0) {
-            return createMap(name, config);
+            return createMap(name, config, localTtl, localMaxSize, nullTtl);
         }
 
-        return createMapCache(name, config);
+        return createMapCache(name, config, localTtl, localMaxSize, refreshRatio, nullTtl);
     }
 
-    private Cache createMap(String name, CacheConfig config) {
-        RMap<Object, Object> map = RedisUtils.getClient().getMap(name);
-
-        Cache cache = new RedissonCache(map, allowNullValues);
-        if (transactionAware) {
-            cache = new TransactionAwareCacheDecorator(cache);
+    /**
+     * 配置了本地缓存过期时间则包装为二级缓存 配置了过期时间与刷新比例则提前刷新
+     * 并支持布隆过滤、同步加载及指标统计
+     */
+    private PlusInstrumentedCache decorateCache(BatchCache cache, long localTtl, int localMaxSize, long ttl, double refreshRatio) {
+        cache = new PlusBloomFilterCache(cache);
+        if (localTtl > 0 && localMaxSize > 0) {
+            cache = new PlusNearCache(cache, localTtl, localMaxSize);
         }
-        Cache oldCache = instanceMap.putIfAbsent(name, cache);
-        if (oldCache != null) {
-            cache = oldCache;
+        cache = new PlusSyncCache(cache, syncClusterLock);
+        if (ttl > 0 && refreshRatio > 0) {
+            cache = new PlusRefreshAheadCache(cache, ttl, refreshRatio, REFRESH_EXECUTOR, syncClusterLock);
         }
-        return cache;
+        return new PlusInstrumentedCache(cache);
     }
 
-    private Cache createMapCache(String name, CacheConfig config) {
-        RMapCache<Object, Object> map = RedisUtils.getClient().getMapCache(name);
-
-        Cache cache = new RedissonCache(map, config, allowNullValues);
-        if (transactionAware) {
-            cache = new TransactionAwareCacheDecorator(cache);
+    /**
+     * 缓存创建成功后登记统计指标
+     */
+    private void registerMetrics(PlusInstrumentedCache cache) {
+        metricsMap.put(cache.getName(), cache);
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            cache.bindTo(registry);
         }
-        Cache oldCache = instanceMap.putIfAbsent(name, cache);
-        if (oldCache != null) {
-            cache = oldCache;
-        } else {
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        metricsMap.values().forEach(cache -> cache.bindTo(registry));
+    }
+
+    /**
+     * 获取各缓存组统计信息
+     */
+    public List<Map<String, Object>> getStatistics() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        new TreeMap<>(metricsMap).values().forEach(cache -> list.add(cache.getStatistics()));
+        return list;
+    }
+
+    /**
+     * 缓存链在 computeIfAbsent 内创建 并发创建时不会产生多余的本地缓存订阅
+     */
+    private Cache createMap(String name, CacheConfig config, long localTtl, int localMaxSize, long nullTtl) {
+        return instanceMap.computeIfAbsent(name, key -> {
+            RMap<Object, Object> map = RedisUtils.getClient().getMap(name, RedisUtils.getCodec(name));
+
+            PlusInstrumentedCache instrumentedCache = decorateCache(new PlusRedissonCache(map, allowNullValues, nullTtl), localTtl, localMaxSize, 0, 0);
+            registerMetrics(instrumentedCache);
+            Cache cache = instrumentedCache;
+            if (transactionAware) {
+                cache = new TransactionAwareCacheDecorator(cache);
+            }
+            return cache;
+        });
+    }
+
+    private Cache createMapCache(String name, CacheConfig config, long localTtl, int localMaxSize, double refreshRatio, long nullTtl) {
+        return instanceMap.computeIfAbsent(name, key -> {
+            RMapCache<Object, Object> map = RedisUtils.getClient().getMapCache(name, RedisUtils.getCodec(name));
+
+            PlusInstrumentedCache instrumentedCache = decorateCache(new PlusRedissonCache(map, config, allowNullValues, nullTtl), localTtl, localMaxSize,
+                config.getTTL(), refreshRatio);
             map.setMaxSize(config.getMaxSize());
-        }
-        return cache;
+            registerMetrics(instrumentedCache);
+            Cache cache = instrumentedCache;
+            if (transactionAware) {
+                cache = new TransactionAwareCacheDecorator(cache);
+            }
+            return cache;
+        });
     }
 
     @Override
@@ -0,0 +1,189 @@
+package com.ruoyi.framework.manager;
+
+import com.ruoyi.common.utils.redis.BatchCache;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RMap;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * 同步加载缓存
+ * <p>
+ * 处理 {@code @Cacheable(sync = true)} 同一 key 未命中时
+ * 本节点内仅一个线程执行加载 其余线程等待其结果
+ * 可选使用短时分布式锁 保证集群内仅一个节点执行加载
+ * 等待其他线程或节点加载完成时通知 {@link PlusCacheLoader#onWait()} 用于统计
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@SuppressWarnings("unchecked")
+public class PlusSyncCache implements BatchCache {
+
+    /**
+     * 分布式锁等待时间(毫秒) 超时后不再等待直接加载
+     */
+    private static final long LOCK_WAIT_TIME = 3000;
+
+    /**
+     * 分布式锁持有时间(毫秒) 防止节点宕机导致锁无法释放
+     */
+    private static final long LOCK_LEASE_TIME = 10000;
+
+    private final BatchCache delegate;
+
+    private final boolean clusterLock;
+
+    /**
+     * 加载中的 key 与 结果
+     */
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    public PlusSyncCache(BatchCache delegate, boolean clusterLock) {
+        this.delegate = delegate;
+        this.clusterLock = clusterLock;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            PlusCacheLoader.notifyWait(valueLoader);
+            return (T) await(key, valueLoader, inFlight);
+        }
+        try {
+            Object value = load(key, valueLoader);
+            future.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        RLock lock = null;
+        if (clusterLock && delegate.getNativeCache() instanceof RMap) {
+            lock = ((RMap<Object, Object>) delegate.getNativeCache()).getLock(key);
+            try {
+                if (!lock.tryLock(LOCK_WAIT_TIME, LOCK_LEASE_TIME, TimeUnit.MILLISECONDS)) {
+                    log.warn("缓存加载等待分布式锁超时 直接加载 => {}:{}", getName(), key);
+                    lock = null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+        try {
+            // 等待期间可能已被其他线程或节点加载
+            ValueWrapper wrapper = delegate.get(key);
+            if (wrapper != null) {
+                PlusCacheLoader.notifyWait(valueLoader);
+                return wrapper.get();
+            }
+            Object value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            delegate.put(key, value);
+            return value;
+        } finally {
+            if (lock != null && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<?, ?> map) {
+        delegate.putAll(map);
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        delegate.evictAll(keys);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+}
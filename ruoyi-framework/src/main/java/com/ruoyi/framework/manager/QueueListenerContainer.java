@@ -0,0 +1,399 @@
+package com.ruoyi.framework.manager;
+
+import com.ruoyi.common.annotation.RedisQueueListener;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.QueueUtils;
+import com.ruoyi.common.utils.spring.SpringUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScript;
+import org.redisson.api.RSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * redis 队列监听容器
+ * <p>
+ * 处理 {@link RedisQueueListener} 注解 每个消费线程原子地将元素从队列头部移入自己的处理中列表
+ * 处理中列表名为 {队列名}:processing:客户端id:bean名#方法名:序号
+ * 处理完成(成功或放入死信队列)后删除处理中列表 节点宕机时处理中列表由其他节点根据心跳放回队列头部
+ * <p>
+ * 元素在本节点内失败时立即重试 超过重试次数放入死信队列 空闲时拉取间隔逐步增加至 1 秒
+ * <p>
+ * 消费线程直接操作列表 适用于普通队列与延迟队列 有界队列请勿使用
+ * <p>
+ * 集群模式且配置了 key 前缀时 队列名需使用 hash tag 保证与处理中列表在同一槽位 例如 {order}
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@Component
+public class QueueListenerContainer implements BeanPostProcessor, SmartLifecycle, MeterBinder {
+
+    /**
+     * 心跳间隔(秒)
+     */
+    private static final long HEARTBEAT_INTERVAL = 10;
+
+    /**
+     * 心跳过期时间(秒) 超过该时间未更新的处理中列表放回队列
+     */
+    private static final long HEARTBEAT_TIMEOUT = 30;
+
+    /**
+     * 空闲时最大拉取间隔(毫秒)
+     */
+    private static final long MAX_IDLE_INTERVAL = 1000;
+
+    /**
+     * 从队列头部移动最多 ARGV[1] 个元素到处理中列表 KEYS[1] 队列 KEYS[2] 处理中列表
+     */
+    private static final String FETCH_SCRIPT =
+        "local result = {} " +
+        "for i = 1, tonumber(ARGV[1]) do " +
+        "local v = redis.call('lpop', KEYS[1]) " +
+        "if not v then break end " +
+        "redis.call('rpush', KEYS[2], v) " +
+        "result[#result + 1] = v " +
+        "end " +
+        "return result";
+
+    /**
+     * 心跳不存在时将处理中列表按原顺序放回队列头部 KEYS[1] 处理中列表 KEYS[2] 队列 KEYS[3] 心跳
+     */
+    private static final String RECOVER_SCRIPT =
+        "if redis.call('exists', KEYS[3]) == 1 then return -1 end " +
+        "local n = 0 " +
+        "while redis.call('rpoplpush', KEYS[1], KEYS[2]) do n = n + 1 end " +
+        "return n";
+
+    private final List<Endpoint> endpoints = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+
+    private MeterRegistry meterRegistry;
+
+    private ScheduledFuture<?> heartbeatFuture;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, RedisQueueListener> methods = MethodIntrospector.selectMethods(targetClass,
+            (MethodIntrospector.MetadataLookup<RedisQueueListener>) method ->
+                AnnotatedElementUtils.findMergedAnnotation(method, RedisQueueListener.class));
+        methods.forEach((method, listener) -> {
+            Method invocableMethod = AopUtils.selectInvocableMethod(method, bean.getClass());
+            ReflectionUtils.makeAccessible(invocableMethod);
+            if (method.getParameterCount() != 1) {
+                throw new IllegalStateException("@RedisQueueListener 方法只能有一个参数 => " + method);
+            }
+            if (listener.batchSize() > 1 && !List.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                throw new IllegalStateException("@RedisQueueListener 批量消费时参数需为 List => " + method);
+            }
+            Endpoint endpoint = new Endpoint(listener, beanName + "#" + method.getName(), bean, invocableMethod);
+            endpoints.add(endpoint);
+            if (meterRegistry != null) {
+                endpoint.bindTo(meterRegistry);
+            }
+            if (running) {
+                endpoint.start();
+            }
+        });
+        return bean;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        endpoints.forEach(Endpoint::start);
+        ScheduledExecutorService scheduledExecutorService = SpringUtils.getBean("scheduledExecutorService");
+        heartbeatFuture = scheduledExecutorService.scheduleWithFixedDelay(() ->
+            endpoints.forEach(Endpoint::heartbeat), HEARTBEAT_INTERVAL, HEARTBEAT_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (heartbeatFuture != null) {
+            heartbeatFuture.cancel(false);
+        }
+        endpoints.forEach(Endpoint::stop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        endpoints.forEach(endpoint -> endpoint.bindTo(registry));
+    }
+
+    /**
+     * 单个监听方法
+     */
+    private class Endpoint {
+
+        private final RedisQueueListener listener;
+
+        private final String queueName;
+
+        private final String deadLetterQueue;
+
+        /**
+         * 监听方法标识 同一节点多个方法监听同一队列时区分处理中列表
+         */
+        private final String endpointId;
+
+        private final Object bean;
+
+        private final Method method;
+
+        /**
+         * 本节点各消费线程的处理中列表
+         */
+        private final List<String> processingNames = new CopyOnWriteArrayList<>();
+
+        private final LongAdder consumed = new LongAdder();
+
+        private final LongAdder retried = new LongAdder();
+
+        private final LongAdder dead = new LongAdder();
+
+        private final LongAdder processCount = new LongAdder();
+
+        private final LongAdder processNanos = new LongAdder();
+
+        private ExecutorService executor;
+
+        private Endpoint(RedisQueueListener listener, String endpointId, Object bean, Method method) {
+            this.listener = listener;
+            this.queueName = listener.value();
+            this.deadLetterQueue = StringUtils.isNotBlank(listener.deadLetterQueue())
+                ? listener.deadLetterQueue() : queueName + ":dlq";
+            this.endpointId = endpointId;
+            this.bean = bean;
+            this.method = method;
+        }
+
+        private String consumersName() {
+            return "{" + queueName + "}:consumers";
+        }
+
+        private String heartbeatName(String processingName) {
+            return processingName + ":heartbeat";
+        }
+
+        private synchronized void start() {
+            if (executor != null) {
+                return;
+            }
+            RedissonClient client = QueueUtils.getClient();
+            int concurrency = Math.max(listener.concurrency(), 1);
+            executor = Executors.newFixedThreadPool(concurrency, new BasicThreadFactory.Builder()
+                .namingPattern("queue-" + queueName + "-%d").daemon(true).build());
+            for (int i = 0; i < concurrency; i++) {
+                String processingName = "{" + queueName + "}:processing:" + client.getId() + ":" + endpointId + ":" + i;
+                processingNames.add(processingName);
+            }
+            heartbeat();
+            processingNames.forEach(processingName -> executor.execute(() -> consume(processingName)));
+            log.info("队列监听启动 => {} 消费线程数: {}", queueName, concurrency);
+        }
+
+        private synchronized void stop() {
+            if (executor == null) {
+                return;
+            }
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("队列监听停止超时 => {}", queueName);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // 未处理完成的元素放回队列
+            RedissonClient client = QueueUtils.getClient();
+            for (String processingName : processingNames) {
+                client.getBucket(heartbeatName(processingName)).delete();
+                recover(processingName);
+            }
+            processingNames.clear();
+            executor = null;
+        }
+
+        /**
+         * 更新本节点心跳 并回收已失效节点的处理中列表
+         */
+        private void heartbeat() {
+            try {
+                if (processingNames.isEmpty()) {
+                    return;
+                }
+                RedissonClient client = QueueUtils.getClient();
+                RBatch batch = client.createBatch();
+                for (String processingName : processingNames) {
+                    batch.getBucket(heartbeatName(processingName), StringCodec.INSTANCE)
+                        .setAsync("1", HEARTBEAT_TIMEOUT, TimeUnit.SECONDS);
+                    // 先写心跳再登记 避免刚登记的处理中列表被其他节点回收
+                    batch.getSet(consumersName(), StringCodec.INSTANCE).addAsync(processingName);
+                }
+                batch.execute();
+                RSet<String> consumers = client.getSet(consumersName(), StringCodec.INSTANCE);
+                for (String processingName : consumers.readAll()) {
+                    if (!processingNames.contains(processingName)) {
+                        recover(processingName);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("队列监听心跳异常 => {}", queueName, e);
+            }
+        }
+
+        private void recover(String processingName) {
+            RScript script = QueueUtils.getClient().getScript(StringCodec.INSTANCE);
+            Long count = script.eval(RScript.Mode.READ_WRITE, RECOVER_SCRIPT, RScript.ReturnType.INTEGER,
+                Arrays.asList(processingName, queueName, heartbeatName(processingName)));
+            if (count != null && count >= 0) {
+                QueueUtils.getClient().getSet(consumersName(), StringCodec.INSTANCE).remove(processingName);
+                if (count > 0) {
+                    log.warn("队列处理中数据放回队列 => {} 数量: {}", processingName, count);
+                }
+            }
+        }
+
+        private void consume(String processingName) {
+            long idleInterval = 0;
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    List<byte[]> raws = fetch(processingName);
+                    if (raws.isEmpty()) {
+                        idleInterval = Math.min(Math.max(idleInterval * 2, 50), MAX_IDLE_INTERVAL);
+                        Thread.sleep(idleInterval);
+                        continue;
+                    }
+                    idleInterval = 0;
+                    handle(processingName, raws);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.error("队列消费异常 => {}", queueName, e);
+                    try {
+                        Thread.sleep(MAX_IDLE_INTERVAL);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        private List<byte[]> fetch(String processingName) {
+            RScript script = QueueUtils.getClient().getScript(ByteArrayCodec.INSTANCE);
+            List<byte[]> raws = script.eval(RScript.Mode.READ_WRITE, FETCH_SCRIPT, RScript.ReturnType.MULTI,
+                Arrays.asList(queueName, processingName),
+                String.valueOf(Math.max(listener.batchSize(), 1)).getBytes(StandardCharsets.UTF_8));
+            return raws == null ? Collections.emptyList() : raws;
+        }
+
+        private void handle(String processingName, List<byte[]> raws) throws InterruptedException {
+            List<Object> items;
+            try {
+                items = decode(raws);
+            } catch (Exception e) {
+                log.error("队列数据解析失败 放入死信队列 => {}", queueName, e);
+                deadLetter(processingName, raws);
+                return;
+            }
+            Object arg = List.class.isAssignableFrom(method.getParameterTypes()[0]) ? items : items.get(0);
+            for (int attempt = 0; ; attempt++) {
+                long start = System.nanoTime();
+                try {
+                    method.invoke(bean, arg);
+                    processNanos.add(System.nanoTime() - start);
+                    processCount.increment();
+                    consumed.add(items.size());
+                    QueueUtils.getClient().getList(processingName).delete();
+                    return;
+                } catch (InvocationTargetException | IllegalAccessException e) {
+                    Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                    if (attempt >= listener.maxRetries()) {
+                        log.error("队列消费失败 放入死信队列 => {}", queueName, cause);
+                        deadLetter(processingName, raws);
+                        return;
+                    }
+                    retried.increment();
+                    log.warn("队列消费失败 第{}次重试 => {}", attempt + 1, queueName, cause);
+                    Thread.sleep(Math.min(100L << attempt, MAX_IDLE_INTERVAL));
+                }
+            }
+        }
+
+        private List<Object> decode(List<byte[]> raws) throws Exception {
+            Codec codec = QueueUtils.getClient().getConfig().getCodec();
+            List<Object> items = new ArrayList<>(raws.size());
+            for (byte[] raw : raws) {
+                ByteBuf buf = Unpooled.wrappedBuffer(raw);
+                try {
+                    items.add(codec.getValueDecoder().decode(buf, null));
+                } finally {
+                    buf.release();
+                }
+            }
+            return items;
+        }
+
+        private void deadLetter(String processingName, List<byte[]> raws) {
+            RBatch batch = QueueUtils.getClient().createBatch();
+            batch.<byte[]>getList(deadLetterQueue, ByteArrayCodec.INSTANCE).addAllAsync(raws);
+            batch.getList(processingName).deleteAsync();
+            batch.execute();
+            dead.add(raws.size());
+        }
+
+        private void bindTo(MeterRegistry registry) {
+            Gauge.builder("redis.queue.lag", this, endpoint -> QueueUtils.getClient().getQueue(queueName).size())
+                .tags("queue", queueName).description("队列积压数量").register(registry);
+            Gauge.builder("redis.queue.dead", this, endpoint -> QueueUtils.getClient().getQueue(deadLetterQueue).size())
+                .tags("queue", queueName).description("死信队列数量").register(registry);
+            FunctionCounter.builder("redis.queue.consumed", consumed, LongAdder::sum)
+                .tags("queue", queueName).description("消费成功数量").register(registry);
+            FunctionCounter.builder("redis.queue.retried", retried, LongAdder::sum)
+                .tags("queue", queueName).description("重试次数").register(registry);
+            FunctionCounter.builder("redis.queue.dead.letters", dead, LongAdder::sum)
+                .tags("queue", queueName).description("放入死信队列数量").register(registry);
+            FunctionTimer.builder("redis.queue.process", this,
+                    endpoint -> processCount.sum(), endpoint -> processNanos.sum(), TimeUnit.NANOSECONDS)
+                .tags("queue", queueName).description("消费耗时").register(registry);
+        }
+
+    }
+
+}
@@ -0,0 +1,351 @@
+package com.ruoyi.framework.manager;
+
+import com.ruoyi.common.annotation.RedisStreamListener;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.RedisStreamUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.StreamMessageId;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * redis stream 消费组监听容器
+ * <p>
+ * 处理 {@link RedisStreamListener} 注解 每个消费线程以 客户端id:bean名#方法名:序号 作为消费者名 批量读取新消息
+ * 处理成功后确认 失败时不确认 消息留在待处理列表 非批量消费时逐条判断 仅失败的消息留在待处理列表
+ * <p>
+ * 消费线程定期认领空闲超过 claimIdle 的待处理消息重新处理 包括宕机节点未确认的消息
+ * 投递次数超过重试次数的消息放入死信 stream 停止时删除没有待处理消息的本节点消费者
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@Component
+public class StreamListenerContainer implements BeanPostProcessor, SmartLifecycle, MeterBinder {
+
+    /**
+     * 读取新消息的阻塞时间
+     */
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(2);
+
+    /**
+     * 单次认领的最大数量
+     */
+    private static final int CLAIM_COUNT = 100;
+
+    /**
+     * 清理空闲消费者的空闲时间(毫秒)
+     */
+    private static final long CONSUMER_IDLE_TIMEOUT = TimeUnit.DAYS.toMillis(1);
+
+    private final List<Endpoint> endpoints = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, RedisStreamListener> methods = MethodIntrospector.selectMethods(targetClass,
+            (MethodIntrospector.MetadataLookup<RedisStreamListener>) method ->
+                AnnotatedElementUtils.findMergedAnnotation(method, RedisStreamListener.class));
+        methods.forEach((method, listener) -> {
+            Method invocableMethod = AopUtils.selectInvocableMethod(method, bean.getClass());
+            ReflectionUtils.makeAccessible(invocableMethod);
+            if (method.getParameterCount() != 1) {
+                throw new IllegalStateException("@RedisStreamListener 方法只能有一个参数 => " + method);
+            }
+            if (listener.batchSize() > 1 && !List.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                throw new IllegalStateException("@RedisStreamListener 批量消费时参数需为 List => " + method);
+            }
+            Endpoint endpoint = new Endpoint(listener, beanName + "#" + method.getName(), bean, invocableMethod);
+            endpoints.add(endpoint);
+            if (meterRegistry != null) {
+                endpoint.bindTo(meterRegistry);
+            }
+            if (running) {
+                endpoint.start();
+            }
+        });
+        return bean;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        endpoints.forEach(Endpoint::start);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        endpoints.forEach(Endpoint::stop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        endpoints.forEach(endpoint -> endpoint.bindTo(registry));
+    }
+
+    /**
+     * 单个监听方法
+     */
+    private class Endpoint {
+
+        private final RedisStreamListener listener;
+
+        private final String streamName;
+
+        private final String groupName;
+
+        private final String deadLetterStream;
+
+        /**
+         * 监听方法标识 同一节点多个方法监听同一消费组时区分消费者
+         */
+        private final String endpointId;
+
+        private final Object bean;
+
+        private final Method method;
+
+        private final boolean batch;
+
+        /**
+         * 本节点各消费线程的消费者名
+         */
+        private final List<String> consumerNames = new CopyOnWriteArrayList<>();
+
+        private final LongAdder consumed = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        private final LongAdder claimed = new LongAdder();
+
+        private final LongAdder dead = new LongAdder();
+
+        private final LongAdder processCount = new LongAdder();
+
+        private final LongAdder processNanos = new LongAdder();
+
+        private ExecutorService executor;
+
+        private Endpoint(RedisStreamListener listener, String endpointId, Object bean, Method method) {
+            this.listener = listener;
+            this.streamName = listener.value();
+            this.groupName = listener.group();
+            this.deadLetterStream = StringUtils.isNotBlank(listener.deadLetterStream())
+                ? listener.deadLetterStream() : streamName + ":dlq";
+            this.endpointId = endpointId;
+            this.bean = bean;
+            this.method = method;
+            this.batch = List.class.isAssignableFrom(method.getParameterTypes()[0]);
+        }
+
+        private synchronized void start() {
+            if (executor != null) {
+                return;
+            }
+            RedisStreamUtils.createGroup(streamName, groupName);
+            int concurrency = Math.max(listener.concurrency(), 1);
+            executor = Executors.newFixedThreadPool(concurrency, new BasicThreadFactory.Builder()
+                .namingPattern("stream-" + streamName + "-" + groupName + "-%d").daemon(true).build());
+            String clientId = RedisStreamUtils.getClient().getId();
+            for (int i = 0; i < concurrency; i++) {
+                String consumerName = clientId + ":" + endpointId + ":" + i;
+                consumerNames.add(consumerName);
+                boolean cleaner = i == 0;
+                executor.execute(() -> consume(consumerName, cleaner));
+            }
+            log.info("stream 监听启动 => {} 消费组: {} 消费线程数: {}", streamName, groupName, concurrency);
+        }
+
+        private synchronized void stop() {
+            if (executor == null) {
+                return;
+            }
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("stream 监听停止超时 => {}", streamName);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                // 有待处理消息的消费者保留 由其他节点认领
+                RedisStreamUtils.removeIdleConsumers(streamName, groupName, 0, consumerNames);
+            } catch (Exception e) {
+                log.warn("stream 消费者删除失败 => {}", streamName, e);
+            }
+            consumerNames.clear();
+            executor = null;
+        }
+
+        /**
+         * @param cleaner 是否负责清理空闲消费者
+         */
+        private void consume(String consumerName, boolean cleaner) {
+            long claimInterval = Math.max(listener.claimIdle() / 2, 1000);
+            long nextClaimTime = 0;
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    long now = System.currentTimeMillis();
+                    if (now >= nextClaimTime) {
+                        nextClaimTime = now + claimInterval;
+                        reclaim(consumerName);
+                        if (cleaner) {
+                            RedisStreamUtils.removeIdleConsumers(streamName, groupName, CONSUMER_IDLE_TIMEOUT, Collections.emptyList());
+                        }
+                    }
+                    Map<StreamMessageId, Object> messages = RedisStreamUtils.readGroup(streamName, groupName,
+                        consumerName, Math.max(listener.batchSize(), 1), READ_TIMEOUT);
+                    handle(messages);
+                } catch (Exception e) {
+                    if (!running || Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    log.error("stream 消费异常 => {}", streamName, e);
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        /**
+         * 认领空闲的待处理消息 投递次数超过重试次数的放入死信 stream 其余重新处理
+         */
+        private void reclaim(String consumerName) {
+            List<PendingEntry> pending = RedisStreamUtils.listPending(streamName, groupName, CLAIM_COUNT);
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<StreamMessageId, Object> messages = RedisStreamUtils.claim(streamName, groupName, consumerName,
+                pending, listener.claimIdle());
+            if (messages.isEmpty()) {
+                return;
+            }
+            claimed.add(messages.size());
+            Map<StreamMessageId, Object> deadMessages = new LinkedHashMap<>();
+            for (PendingEntry entry : pending) {
+                if (entry.getLastTimeDelivered() > listener.maxRetries() && messages.containsKey(entry.getId())) {
+                    deadMessages.put(entry.getId(), messages.remove(entry.getId()));
+                }
+            }
+            if (!deadMessages.isEmpty()) {
+                log.error("stream 消息重试次数超限 放入死信 => {} 数量: {}", streamName, deadMessages.size());
+                RedisStreamUtils.deadLetter(streamName, groupName, deadLetterStream, deadMessages);
+                dead.add(deadMessages.size());
+            }
+            // 按批量大小分批处理
+            List<StreamMessageId> ids = new ArrayList<>(messages.keySet());
+            int batchSize = Math.max(listener.batchSize(), 1);
+            for (int i = 0; i < ids.size(); i += batchSize) {
+                Map<StreamMessageId, Object> part = new LinkedHashMap<>();
+                for (StreamMessageId id : ids.subList(i, Math.min(i + batchSize, ids.size()))) {
+                    part.put(id, messages.get(id));
+                }
+                handle(part);
+            }
+        }
+
+        private void handle(Map<StreamMessageId, Object> messages) {
+            if (messages.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            Collection<StreamMessageId> succeeded;
+            if (batch) {
+                if (!invoke(new ArrayList<>(messages.values()), messages.size())) {
+                    return;
+                }
+                succeeded = messages.keySet();
+            } else {
+                // 逐条处理 失败的消息不影响已成功消息的确认
+                succeeded = new ArrayList<>(messages.size());
+                for (Map.Entry<StreamMessageId, Object> entry : messages.entrySet()) {
+                    if (invoke(entry.getValue(), 1)) {
+                        succeeded.add(entry.getKey());
+                    }
+                }
+            }
+            processNanos.add(System.nanoTime() - start);
+            processCount.increment();
+            RedisStreamUtils.ack(streamName, groupName, succeeded);
+            consumed.add(succeeded.size());
+        }
+
+        /**
+         * 调用监听方法 失败时不确认 超过认领时间后重新投递
+         *
+         * @param arg   方法参数
+         * @param count 消息数量
+         * @return 是否成功
+         */
+        private boolean invoke(Object arg, int count) {
+            try {
+                method.invoke(bean, arg);
+                return true;
+            } catch (InvocationTargetException | IllegalAccessException e) {
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                failed.add(count);
+                log.error("stream 消费失败 等待重新投递 => {} 消费组: {}", streamName, groupName, cause);
+                return false;
+            }
+        }
+
+        private void bindTo(MeterRegistry registry) {
+            Gauge.builder("redis.stream.length", this, endpoint -> RedisStreamUtils.getClient().getStream(streamName).size())
+                .tags("stream", streamName, "group", groupName).description("stream 长度").register(registry);
+            Gauge.builder("redis.stream.pending", this, endpoint ->
+                    RedisStreamUtils.getClient().getStream(streamName).getPendingInfo(groupName).getTotal())
+                .tags("stream", streamName, "group", groupName).description("待确认消息数量").register(registry);
+            FunctionCounter.builder("redis.stream.consumed", consumed, LongAdder::sum)
+                .tags("stream", streamName, "group", groupName).description("消费成功数量").register(registry);
+            FunctionCounter.builder("redis.stream.failed", failed, LongAdder::sum)
+                .tags("stream", streamName, "group", groupName).description("消费失败数量").register(registry);
+            FunctionCounter.builder("redis.stream.claimed", claimed, LongAdder::sum)
+                .tags("stream", streamName, "group", groupName).description("认领待处理消息数量").register(registry);
+            FunctionCounter.builder("redis.stream.dead.letters", dead, LongAdder::sum)
+                .tags("stream", streamName, "group", groupName).description("放入死信数量").register(registry);
+            FunctionTimer.builder("redis.stream.process", this,
+                    endpoint -> processCount.sum(), endpoint -> processNanos.sum(), TimeUnit.NANOSECONDS)
+                .tags("stream", streamName, "group", groupName).description("消费耗时").register(registry);
+        }
+
+    }
+
+}
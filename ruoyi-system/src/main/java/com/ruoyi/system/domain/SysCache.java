@@ -33,6 +33,11 @@ public class SysCache {
      */
     private String remark = "";
 
+    /**
+     * key 数量 缓存组为精确值 key 前缀为采样估算值
+     */
+    private Long keyCount;
+
     public SysCache(String cacheName, String remark) {
         this.cacheName = cacheName;
         this.remark = remark;
@@ -0,0 +1,34 @@
+package com.ruoyi.system.domain;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+/**
+ * 部门闭包关系 sys_dept_closure
+ * <p>
+ * 主键为 (ancestor_id, descendant_id) 联合主键 不声明 @TableId 不可使用 selectById、updateById、deleteById 等按ID操作的方法
+ * 所有操作均通过条件构造器完成
+ *
+ * @author Lion Li
+ */
+
+@Data
+@TableName("sys_dept_closure")
+public class SysDeptClosure {
+
+    /**
+     * 祖先部门ID
+     */
+    private Long ancestorId;
+
+    /**
+     * 后代部门ID
+     */
+    private Long descendantId;
+
+    /**
+     * 层级距离(0代表自身)
+     */
+    private Integer depth;
+
+}
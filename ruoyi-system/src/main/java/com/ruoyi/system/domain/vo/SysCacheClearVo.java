@@ -0,0 +1,50 @@
+package com.ruoyi.system.domain.vo;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 缓存后台清理任务视图对象
+ *
+ * @author Lion Li
+ */
+@Data
+public class SysCacheClearVo {
+
+    /**
+     * 任务ID
+     */
+    private String taskId;
+
+    /**
+     * 匹配规则
+     */
+    private String pattern;
+
+    /**
+     * 状态（0运行中 1已完成 2失败）
+     */
+    private String status;
+
+    /**
+     * 已删除数量
+     */
+    private Long deletedCount;
+
+    /**
+     * 开始时间
+     */
+    private Date startTime;
+
+    /**
+     * 结束时间
+     */
+    private Date endTime;
+
+    /**
+     * 失败原因
+     */
+    private String errorMsg;
+
+}
@@ -0,0 +1,25 @@
+package com.ruoyi.system.domain.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 缓存key分页视图对象
+ *
+ * @author Lion Li
+ */
+@Data
+public class SysCacheKeyPageVo {
+
+    /**
+     * 本页 key 列表
+     */
+    private List<String> keys;
+
+    /**
+     * 下一页游标 为空表示已扫描完成
+     */
+    private String cursor;
+
+}
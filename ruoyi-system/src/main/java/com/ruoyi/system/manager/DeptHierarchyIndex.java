@@ -0,0 +1,346 @@
+package com.ruoyi.system.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.ruoyi.common.core.domain.entity.SysDept;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.RedisUtils;
+import com.ruoyi.system.mapper.SysDeptMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+
+/**
+ * 部门层级内存索引
+ * <p>
+ * 将部门树按先序遍历展开为基本类型数组 子树对应数组中连续区间
+ * 查询下级、判断上下级关系无需访问数据库
+ * <p>
+ * 部门变更后调用 {@link #refresh()} 递增 redis 中的索引版本并通知所有节点 下次访问时重新加载
+ * 通道消息可能丢失 每隔 {@link #VERSION_CHECK_INTERVAL} 毫秒比对一次索引版本 版本不一致时重新加载
+ * <p>
+ * 先序区间需整体重新编号 变更时按单次查询全量重建 不做局部更新
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class DeptHierarchyIndex {
+
+    /**
+     * 部门层级变更通知 通道key
+     */
+    public static final String DEPT_HIERARCHY_REFRESH_TOPIC = "global:dept_hierarchy:refresh";
+
+    /**
+     * 部门层级索引版本 key
+     */
+    public static final String DEPT_HIERARCHY_VERSION_KEY = "global:dept_hierarchy:version";
+
+    /**
+     * 索引版本比对间隔(毫秒)
+     */
+    private static final long VERSION_CHECK_INTERVAL = 10000;
+
+    private final SysDeptMapper deptMapper;
+
+    private volatile Snapshot snapshot;
+
+    private volatile boolean stale = true;
+
+    /**
+     * 当前索引构建时的版本
+     */
+    private volatile long builtVersion;
+
+    private volatile long nextVersionCheckTime;
+
+    @PostConstruct
+    public void init() {
+        RedisUtils.subscribe(DEPT_HIERARCHY_REFRESH_TOPIC, String.class, msg -> stale = true);
+    }
+
+    /**
+     * 通知所有节点重建索引 存在事务时于事务提交后发送
+     */
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishRefresh();
+                }
+            });
+        } else {
+            publishRefresh();
+        }
+    }
+
+    private void publishRefresh() {
+        stale = true;
+        RedisUtils.incrAtomicValue(DEPT_HIERARCHY_VERSION_KEY);
+        RedisUtils.publish(DEPT_HIERARCHY_REFRESH_TOPIC, String.valueOf(System.currentTimeMillis()));
+    }
+
+    /**
+     * 部门是否存在(未删除)
+     *
+     * @param deptId 部门ID
+     */
+    public boolean contains(Long deptId) {
+        return deptId != null && getSnapshot().position(deptId) >= 0;
+    }
+
+    /**
+     * 判断部门是否为指定部门或其下级
+     *
+     * @param deptId     部门ID
+     * @param ancestorId 上级部门ID
+     */
+    public boolean isUnder(Long deptId, Long ancestorId) {
+        if (deptId == null || ancestorId == null) {
+            return false;
+        }
+        Snapshot s = getSnapshot();
+        int pos = s.position(deptId);
+        int ancestorPos = s.position(ancestorId);
+        return pos >= 0 && ancestorPos >= 0 && pos >= ancestorPos && pos <= s.ends[ancestorPos];
+    }
+
+    /**
+     * 查询部门及全部下级部门ID
+     *
+     * @param deptId 部门ID
+     * @return 部门ID(含自身) 部门不存在返回空数组
+     */
+    public long[] selectDeptAndChildIds(Long deptId) {
+        Snapshot s = getSnapshot();
+        int pos = deptId == null ? -1 : s.position(deptId);
+        if (pos < 0) {
+            return new long[0];
+        }
+        return Arrays.copyOfRange(s.ids, pos, s.ends[pos] + 1);
+    }
+
+    /**
+     * 统计下级部门中指定状态的数量
+     *
+     * @param deptId 部门ID
+     * @param status 部门状态
+     */
+    public long countChildren(Long deptId, String status) {
+        Snapshot s = getSnapshot();
+        int pos = deptId == null ? -1 : s.position(deptId);
+        if (pos < 0) {
+            return 0;
+        }
+        long count = 0;
+        for (int i = pos + 1; i <= s.ends[pos]; i++) {
+            if (StringUtils.equals(status, s.statuses[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按部门ID构造部门对象(仅包含树结构所需字段)
+     *
+     * @param deptIds 部门ID 为空则返回全部部门
+     * @return 部门列表 按父部门ID、显示顺序排序
+     */
+    public List<SysDept> selectDeptList(Collection<Long> deptIds) {
+        Snapshot s = getSnapshot();
+        List<SysDept> list = new ArrayList<>();
+        if (deptIds == null) {
+            for (int i = 0; i < s.ids.length; i++) {
+                list.add(s.toDept(i));
+            }
+        } else {
+            for (Long deptId : deptIds) {
+                int pos = s.position(deptId);
+                if (pos >= 0) {
+                    list.add(s.toDept(pos));
+                }
+            }
+        }
+        list.sort(Comparator.comparing(SysDept::getParentId).thenComparing(SysDept::getOrderNum));
+        return list;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot s = snapshot;
+        if (s != null && !stale && !versionChanged()) {
+            return s;
+        }
+        synchronized (this) {
+            if (snapshot == null || stale) {
+                // 先清除标记并记录版本 构建期间的变更会重新标记
+                stale = false;
+                builtVersion = currentVersion(builtVersion);
+                nextVersionCheckTime = System.currentTimeMillis() + VERSION_CHECK_INTERVAL;
+                snapshot = build();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 定期比对索引版本 通知丢失时标记重新加载
+     */
+    private boolean versionChanged() {
+        long now = System.currentTimeMillis();
+        if (now < nextVersionCheckTime) {
+            return false;
+        }
+        nextVersionCheckTime = now + VERSION_CHECK_INTERVAL;
+        if (currentVersion(builtVersion) != builtVersion) {
+            stale = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * redis 不可用时沿用原版本 继续使用当前索引
+     */
+    private long currentVersion(long defaultVersion) {
+        try {
+            return RedisUtils.getAtomicValue(DEPT_HIERARCHY_VERSION_KEY);
+        } catch (Exception e) {
+            log.warn("部门层级索引版本查询失败", e);
+            return defaultVersion;
+        }
+    }
+
+    private Snapshot build() {
+        List<SysDept> depts = deptMapper.selectList(new LambdaQueryWrapper<SysDept>()
+            .select(SysDept::getDeptId, SysDept::getParentId, SysDept::getDeptName, SysDept::getOrderNum, SysDept::getStatus));
+        Map<Long, SysDept> deptMap = new HashMap<>(depts.size() * 2);
+        Map<Long, List<SysDept>> childrenMap = new HashMap<>(depts.size() * 2);
+        for (SysDept dept : depts) {
+            deptMap.put(dept.getDeptId(), dept);
+        }
+        List<SysDept> roots = new ArrayList<>();
+        for (SysDept dept : depts) {
+            if (dept.getParentId() != null && deptMap.containsKey(dept.getParentId())) {
+                childrenMap.computeIfAbsent(dept.getParentId(), k -> new ArrayList<>()).add(dept);
+            } else {
+                roots.add(dept);
+            }
+        }
+        Comparator<SysDept> order = Comparator.comparing(d -> d.getOrderNum() == null ? 0 : d.getOrderNum());
+        roots.sort(order);
+        childrenMap.values().forEach(children -> children.sort(order));
+
+        int size = depts.size();
+        Snapshot s = new Snapshot(size);
+        // 先序遍历 同时记录父节点位置
+        int[] parentPositions = new int[size];
+        Deque<SysDept> stack = new ArrayDeque<>();
+        Map<Long, Integer> positions = new HashMap<>(size * 2);
+        int index = 0;
+        for (int r = roots.size() - 1; r >= 0; r--) {
+            stack.push(roots.get(r));
+        }
+        while (!stack.isEmpty()) {
+            SysDept dept = stack.pop();
+            int pos = index++;
+            s.fill(pos, dept);
+            positions.put(dept.getDeptId(), pos);
+            parentPositions[pos] = positions.getOrDefault(dept.getParentId(), -1);
+            List<SysDept> children = childrenMap.getOrDefault(dept.getDeptId(), Collections.emptyList());
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+        // 逆序累加子树大小 得到子树区间结束位置
+        int[] subtreeSizes = new int[size];
+        for (int pos = size - 1; pos >= 0; pos--) {
+            subtreeSizes[pos] += 1;
+            s.ends[pos] = pos + subtreeSizes[pos] - 1;
+            if (parentPositions[pos] >= 0) {
+                subtreeSizes[parentPositions[pos]] += subtreeSizes[pos];
+            }
+        }
+        s.sortIndex();
+        log.debug("部门层级索引构建完成 部门数量: {}", size);
+        return s;
+    }
+
+    /**
+     * 索引快照 构建后不再修改
+     */
+    private static final class Snapshot {
+
+        /**
+         * 先序遍历顺序的部门ID
+         */
+        final long[] ids;
+        final long[] parentIds;
+        /**
+         * 子树在先序数组中的结束位置(含)
+         */
+        final int[] ends;
+        final int[] orderNums;
+        final String[] names;
+        final String[] statuses;
+        /**
+         * 升序部门ID 与其先序位置 用于二分查找
+         */
+        final long[] sortedIds;
+        final int[] sortedPositions;
+
+        Snapshot(int size) {
+            ids = new long[size];
+            parentIds = new long[size];
+            ends = new int[size];
+            orderNums = new int[size];
+            names = new String[size];
+            statuses = new String[size];
+            sortedIds = new long[size];
+            sortedPositions = new int[size];
+        }
+
+        void fill(int pos, SysDept dept) {
+            ids[pos] = dept.getDeptId();
+            parentIds[pos] = dept.getParentId() == null ? 0L : dept.getParentId();
+            orderNums[pos] = dept.getOrderNum() == null ? 0 : dept.getOrderNum();
+            names[pos] = dept.getDeptName();
+            statuses[pos] = dept.getStatus();
+        }
+
+        void sortIndex() {
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> ids[i]));
+            for (int i = 0; i < order.length; i++) {
+                sortedIds[i] = ids[order[i]];
+                sortedPositions[i] = order[i];
+            }
+        }
+
+        int position(long deptId) {
+            int i = Arrays.binarySearch(sortedIds, deptId);
+            return i >= 0 ? sortedPositions[i] : -1;
+        }
+
+        SysDept toDept(int pos) {
+            SysDept dept = new SysDept();
+            dept.setDeptId(ids[pos]);
+            dept.setParentId(parentIds[pos]);
+            dept.setDeptName(names[pos]);
+            dept.setOrderNum(orderNums[pos]);
+            dept.setStatus(statuses[pos]);
+            return dept;
+        }
+    }
+
+}
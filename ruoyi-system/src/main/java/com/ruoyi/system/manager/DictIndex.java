@@ -0,0 +1,99 @@
+package com.ruoyi.system.manager;
+
+import com.ruoyi.common.core.domain.entity.SysDictData;
+import com.ruoyi.common.utils.StringUtils;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字典索引
+ * <p>
+ * 单个字典类型的 值->标签、标签->值 映射 构建后不再修改
+ *
+ * @author Lion Li
+ */
+public class DictIndex {
+
+    /**
+     * 构建时的版本号
+     */
+    @Getter
+    private final long version;
+
+    private final Map<String, String> valueToLabel;
+
+    private final Map<String, String> labelToValue;
+
+    public DictIndex(long version, List<SysDictData> datas) {
+        this.version = version;
+        Map<String, String> labels = new LinkedHashMap<>();
+        Map<String, String> values = new LinkedHashMap<>();
+        if (datas != null) {
+            for (SysDictData data : datas) {
+                labels.putIfAbsent(data.getDictValue(), data.getDictLabel());
+                values.putIfAbsent(data.getDictLabel(), data.getDictValue());
+            }
+        }
+        this.valueToLabel = Collections.unmodifiableMap(labels);
+        this.labelToValue = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * 获取字典值与标签映射(按字典排序)
+     */
+    public Map<String, String> getValueToLabel() {
+        return valueToLabel;
+    }
+
+    /**
+     * 根据字典值获取字典标签 多个值按分隔符拆分后分别转换
+     *
+     * @param dictValue 字典值
+     * @param separator 分隔符
+     * @return 字典标签 未匹配为空字符串
+     */
+    public String getLabel(String dictValue, String separator) {
+        return translate(dictValue, separator, valueToLabel);
+    }
+
+    /**
+     * 根据字典标签获取字典值 多个标签按分隔符拆分后分别转换
+     *
+     * @param dictLabel 字典标签
+     * @param separator 分隔符
+     * @return 字典值 未匹配为空字符串
+     */
+    public String getValue(String dictLabel, String separator) {
+        return translate(dictLabel, separator, labelToValue);
+    }
+
+    private static String translate(String source, String separator, Map<String, String> map) {
+        if (source == null || StringUtils.isEmpty(separator) || !source.contains(separator)) {
+            return source == null ? StringUtils.EMPTY : map.getOrDefault(source, StringUtils.EMPTY);
+        }
+        StringBuilder sb = new StringBuilder();
+        int start = 0;
+        int end = source.length();
+        // 与 String.split 一致 忽略末尾的空项
+        while (end >= separator.length() && source.startsWith(separator, end - separator.length())) {
+            end -= separator.length();
+        }
+        while (start <= end) {
+            int index = source.indexOf(separator, start);
+            if (index < 0 || index > end) {
+                index = end;
+            }
+            if (start > 0) {
+                sb.append(separator);
+            }
+            sb.append(map.getOrDefault(source.substring(start, index), StringUtils.EMPTY));
+            start = index + separator.length();
+        }
+        return sb.toString();
+    }
+
+}
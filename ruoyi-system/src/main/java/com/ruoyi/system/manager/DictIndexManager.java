@@ -0,0 +1,100 @@
+package com.ruoyi.system.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruoyi.common.core.domain.entity.SysDictData;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.RedisUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 字典索引管理
+ * <p>
+ * 本地保存各字典类型的 {@link DictIndex}
+ * 字典变更后调用 {@link #refresh(String)} 通知所有节点丢弃索引 下次访问时重新构建
+ *
+ * @author Lion Li
+ */
+@Component
+public class DictIndexManager {
+
+    /**
+     * 字典索引变更通知 通道key 消息为字典类型 空则为全部
+     */
+    public static final String DICT_INDEX_REFRESH_TOPIC = "global:dict_index:refresh";
+
+    /**
+     * 字典类型 与 索引 过期时间为变更通知丢失时的兜底
+     */
+    private final Cache<String, DictIndex> indexCache = Caffeine.newBuilder()
+        .expireAfterWrite(10, TimeUnit.MINUTES)
+        .build();
+
+    /**
+     * 索引版本 每次变更递增 构建期间发生变更的索引不保存
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        RedisUtils.subscribe(DICT_INDEX_REFRESH_TOPIC, String.class, this::invalidate);
+    }
+
+    /**
+     * 获取字典索引
+     *
+     * @param dictType 字典类型
+     * @param loader   字典数据加载
+     */
+    public DictIndex getIndex(String dictType, Function<String, List<SysDictData>> loader) {
+        DictIndex index = indexCache.getIfPresent(dictType);
+        if (index != null) {
+            return index;
+        }
+        long current = version.get();
+        index = new DictIndex(current, loader.apply(dictType));
+        if (version.get() == current) {
+            indexCache.put(dictType, index);
+        }
+        return index;
+    }
+
+    /**
+     * 通知所有节点丢弃字典索引 存在事务时于事务提交后发送
+     *
+     * @param dictType 字典类型 为空则丢弃全部
+     */
+    public void refresh(String dictType) {
+        String msg = StringUtils.blankToDefault(dictType, StringUtils.EMPTY);
+        invalidate(msg);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(msg);
+                    RedisUtils.publish(DICT_INDEX_REFRESH_TOPIC, msg);
+                }
+            });
+        } else {
+            RedisUtils.publish(DICT_INDEX_REFRESH_TOPIC, msg);
+        }
+    }
+
+    private void invalidate(String dictType) {
+        version.incrementAndGet();
+        if (StringUtils.isEmpty(dictType)) {
+            indexCache.invalidateAll();
+        } else {
+            indexCache.invalidate(dictType);
+        }
+    }
+
+}
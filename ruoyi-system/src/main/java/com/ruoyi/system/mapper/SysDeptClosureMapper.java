@@ -0,0 +1,13 @@
+package com.ruoyi.system.mapper;
+
+import com.ruoyi.common.core.mapper.BaseMapperPlus;
+import com.ruoyi.system.domain.SysDeptClosure;
+
+/**
+ * 部门闭包表 数据层
+ *
+ * @author Lion Li
+ */
+public interface SysDeptClosureMapper extends BaseMapperPlus<SysDeptClosureMapper, SysDeptClosure, SysDeptClosure> {
+
+}
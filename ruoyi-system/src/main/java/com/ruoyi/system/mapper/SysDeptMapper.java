@@ -28,6 +28,17 @@ public interface SysDeptMapper extends BaseMapperPlus<SysDeptMapper, SysDept, Sy
     })
     List<SysDept> selectDeptList(@Param(Constants.WRAPPER) Wrapper<SysDept> queryWrapper);
 
+    /**
+     * 根据条件查询有数据权限的部门ID
+     *
+     * @param queryWrapper 查询条件
+     * @return 部门ID集合
+     */
+    @DataPermission({
+        @DataColumn(key = "deptName", value = "dept_id")
+    })
+    List<Long> selectDeptIdList(@Param(Constants.WRAPPER) Wrapper<SysDept> queryWrapper);
+
     /**
      * 根据角色ID查询部门树信息
      *
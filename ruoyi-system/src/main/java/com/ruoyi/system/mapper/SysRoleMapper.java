@@ -34,6 +34,17 @@ public interface SysRoleMapper extends BaseMapperPlus<SysRoleMapper, SysRole, Sy
     })
     List<SysRole> selectRoleList(@Param(Constants.WRAPPER) Wrapper<SysRole> queryWrapper);
 
+    /**
+     * 根据条件查询有数据权限的角色ID
+     *
+     * @param queryWrapper 查询条件
+     * @return 角色ID集合
+     */
+    @DataPermission({
+        @DataColumn(key = "deptName", value = "d.dept_id")
+    })
+    List<Long> selectRoleIdList(@Param(Constants.WRAPPER) Wrapper<SysRole> queryWrapper);
+
     /**
      * 根据用户ID查询角色
      *
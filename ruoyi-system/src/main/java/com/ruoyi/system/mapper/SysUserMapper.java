@@ -60,6 +60,18 @@ public interface SysUserMapper extends BaseMapperPlus<SysUserMapper, SysUser, Sy
     })
     Page<SysUser> selectUnallocatedList(@Param("page") Page<SysUser> page, @Param(Constants.WRAPPER) Wrapper<SysUser> queryWrapper);
 
+    /**
+     * 根据条件查询有数据权限的用户ID
+     *
+     * @param queryWrapper 查询条件
+     * @return 用户ID集合
+     */
+    @DataPermission({
+        @DataColumn(key = "deptName", value = "d.dept_id"),
+        @DataColumn(key = "userName", value = "u.user_id")
+    })
+    List<Long> selectUserIdList(@Param(Constants.WRAPPER) Wrapper<SysUser> queryWrapper);
+
     /**
      * 通过用户名查询用户
      *
@@ -1,17 +1,31 @@
 package com.ruoyi.system.runner;
 
 import com.ruoyi.common.config.RuoYiConfig;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.constant.CacheNames;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.RedisUtils;
+import com.ruoyi.common.utils.spring.SpringUtils;
 import com.ruoyi.system.service.ISysConfigService;
 import com.ruoyi.system.service.ISysDictTypeService;
 import com.ruoyi.system.service.ISysOssConfigService;
+import com.ruoyi.system.service.ISysOssService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
 /**
  * 初始化 system 模块对应业务数据
+ * <p>
+ * 各缓存相互独立 并行加载 每个缓存组批量写入
+ * 数据版本与 redis 中记录的版本一致且缓存存在时跳过加载
+ * 开启布隆过滤器时 同时加载参数、字典、OSS 的 key 过滤器
  *
  * @author Lion Li
  */
@@ -24,18 +38,52 @@ public class SystemApplicationRunner implements ApplicationRunner {
     private final ISysConfigService configService;
     private final ISysDictTypeService dictTypeService;
     private final ISysOssConfigService ossConfigService;
+    private final ISysOssService ossService;
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
-        ossConfigService.init();
-        log.info("初始化OSS配置成功");
+        Executor executor = SpringUtils.getBean("scheduledExecutorService");
+        CompletableFuture<Void> initFuture = CompletableFuture.runAsync(() -> {
+            ossConfigService.init();
+            log.info("初始化OSS配置成功");
+        }, executor);
+        if (ruoyiConfig.isCacheBloomFilter()) {
+            initFuture = CompletableFuture.allOf(initFuture,
+                CompletableFuture.runAsync(configService::loadingConfigKeyFilter, executor),
+                CompletableFuture.runAsync(dictTypeService::loadingDictKeyFilter, executor),
+                CompletableFuture.runAsync(ossService::loadingOssKeyFilter, executor));
+        }
         if (ruoyiConfig.isCacheLazy()) {
+            initFuture.join();
+            return;
+        }
+        CompletableFuture<Void> configFuture = CompletableFuture.runAsync(() ->
+            warmUp(CacheNames.SYS_CONFIG, configService::selectConfigVersion, configService::loadingConfigCache, "参数"), executor);
+        CompletableFuture<Void> dictFuture = CompletableFuture.runAsync(() ->
+            warmUp(CacheNames.SYS_DICT, dictTypeService::selectDictVersion, dictTypeService::loadingDictCache, "字典"), executor);
+        CompletableFuture.allOf(initFuture, configFuture, dictFuture).join();
+    }
+
+    /**
+     * 缓存预热 版本未变化且缓存存在则跳过
+     *
+     * @param cacheNames 缓存组名称
+     * @param version    数据版本
+     * @param loader     加载缓存
+     * @param desc       缓存描述
+     */
+    private void warmUp(String cacheNames, Supplier<String> version, Runnable loader, String desc) {
+        String cacheName = StringUtils.substringBefore(cacheNames, "#");
+        String versionKey = CacheConstants.CACHE_VERSION_KEY + cacheName;
+        String currentVersion = version.get();
+        if (StringUtils.equals(currentVersion, RedisUtils.getCacheObject(versionKey))
+            && RedisUtils.isExistsObject(cacheName)) {
+            log.info("{}缓存数据版本未变化 跳过加载", desc);
             return;
         }
-        configService.loadingConfigCache();
-        log.info("加载参数缓存数据成功");
-        dictTypeService.loadingDictCache();
-        log.info("加载字典缓存数据成功");
+        loader.run();
+        RedisUtils.setCacheObject(versionKey, currentVersion);
+        log.info("加载{}缓存数据成功", desc);
     }
 
 }
@@ -0,0 +1,50 @@
+package com.ruoyi.system.service;
+
+import com.ruoyi.system.domain.SysCache;
+import com.ruoyi.system.domain.vo.SysCacheClearVo;
+import com.ruoyi.system.domain.vo.SysCacheKeyPageVo;
+
+import java.util.List;
+
+/**
+ * 缓存监控 服务层
+ *
+ * @author Lion Li
+ */
+public interface ISysCacheService {
+
+    /**
+     * 统计各缓存的 key 数量 缓存组为精确值 key 前缀为采样估算值
+     *
+     * @param caches 缓存列表
+     * @return 带 key 数量的缓存列表
+     */
+    List<SysCache> selectCacheCount(List<SysCache> caches);
+
+    /**
+     * 游标分页查询缓存 key
+     *
+     * @param cacheName 缓存组名称或 key 前缀
+     * @param cursor    上一页返回的游标 首页为空
+     * @param pageSize  每页数量 按 SCAN 批次返回 实际数量可能略多
+     * @return 本页 key 与下一页游标
+     */
+    SysCacheKeyPageVo selectCacheKeyPage(String cacheName, String cursor, int pageSize);
+
+    /**
+     * 后台分批清理匹配的 key
+     *
+     * @param pattern 匹配规则
+     * @return 清理任务
+     */
+    SysCacheClearVo clearCacheAsync(String pattern);
+
+    /**
+     * 查询清理任务进度
+     *
+     * @param taskId 任务ID
+     * @return 清理任务
+     */
+    SysCacheClearVo selectClearTask(String taskId);
+
+}
@@ -75,6 +75,18 @@ public interface ISysConfigService {
      */
     void loadingConfigCache();
 
+    /**
+     * 获取参数数据版本 数据未变更时版本不变
+     *
+     * @return 版本
+     */
+    String selectConfigVersion();
+
+    /**
+     * 加载参数键名布隆过滤器
+     */
+    void loadingConfigKeyFilter();
+
     /**
      * 清空参数缓存数据
      */
@@ -11,7 +11,7 @@ public interface ISysDataScopeService {
      * 获取角色自定义权限
      *
      * @param roleId 角色id
-     * @return 部门id组
+     * @return 部门id子查询
      */
     String getRoleCustom(Long roleId);
 
@@ -19,7 +19,7 @@ public interface ISysDataScopeService {
      * 获取部门及以下权限
      *
      * @param deptId 部门id
-     * @return 部门id组
+     * @return 部门id子查询
      */
     String getDeptAndChild(Long deptId);
 
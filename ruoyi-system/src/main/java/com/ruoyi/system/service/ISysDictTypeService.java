@@ -68,6 +68,18 @@ public interface ISysDictTypeService {
      */
     void loadingDictCache();
 
+    /**
+     * 获取字典数据版本 数据未变更时版本不变
+     *
+     * @return 版本
+     */
+    String selectDictVersion();
+
+    /**
+     * 加载字典类型布隆过滤器
+     */
+    void loadingDictKeyFilter();
+
     /**
      * 清空字典缓存数据
      */
@@ -5,6 +5,7 @@ import com.ruoyi.common.core.domain.entity.SysRole;
 import com.ruoyi.common.core.page.TableDataInfo;
 import com.ruoyi.system.domain.SysUserRole;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -95,6 +96,13 @@ public interface ISysRoleService {
      */
     void checkRoleDataScope(Long roleId);
 
+    /**
+     * 批量校验角色是否有数据权限
+     *
+     * @param roleIds 角色id
+     */
+    void checkRoleDataScope(Collection<Long> roleIds);
+
     /**
      * 通过角色ID查询角色使用数量
      *
@@ -4,6 +4,7 @@ import com.ruoyi.common.core.domain.PageQuery;
 import com.ruoyi.common.core.domain.entity.SysUser;
 import com.ruoyi.common.core.page.TableDataInfo;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -118,6 +119,13 @@ public interface ISysUserService {
      */
     void checkUserDataScope(Long userId);
 
+    /**
+     * 批量校验用户是否有数据权限
+     *
+     * @param userIds 用户id
+     */
+    void checkUserDataScope(Collection<Long> userIds);
+
     /**
      * 新增用户信息
      *
@@ -0,0 +1,260 @@
+package com.ruoyi.system.service.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruoyi.common.constant.CacheConstants;
+import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.redis.RedisUtils;
+import com.ruoyi.system.domain.SysCache;
+import com.ruoyi.system.domain.vo.SysCacheClearVo;
+import com.ruoyi.system.domain.vo.SysCacheKeyPageVo;
+import com.ruoyi.system.service.ISysCacheService;
+import io.netty.buffer.Unpooled;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.protocol.Decoder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存监控 服务层实现
+ * <p>
+ * key 列表使用 SCAN/HSCAN 游标分页 直接返回 redis 游标 服务端不保存状态 每页数量为近似值
+ * redis 集群模式下按前缀扫描需遍历各节点 游标对应的迭代器保存在本节点内存中 翻页需访问同一节点
+ * 按前缀清理时在后台分批 UNLINK 每批之间间隔一段时间 避免长时间占用 redis 布隆过滤器 key 不清理
+ *
+ * @author Lion Li
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class SysCacheServiceImpl implements ISysCacheService {
+
+    /**
+     * 估算 key 数量的采样次数
+     */
+    private static final int SAMPLE_SIZE = 200;
+
+    /**
+     * 每批清理数量
+     */
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    /**
+     * 每批清理间隔(毫秒)
+     */
+    private static final long CLEAR_INTERVAL = 50;
+
+    /**
+     * 清理任务保留时间
+     */
+    private static final Duration CLEAR_TASK_EXPIRE = Duration.ofDays(1);
+
+    /**
+     * 扫描 key 返回 下一游标、添加前缀后的匹配模式、key 列表 KEYS[1] 匹配模式 ARGV[1] 游标 ARGV[2] 数量
+     */
+    private static final String SCAN_SCRIPT =
+        "local result = redis.call('scan', ARGV[1], 'match', KEYS[1], 'count', ARGV[2]) " +
+        "local list = {result[1], KEYS[1]} " +
+        "for _, key in ipairs(result[2]) do list[#list + 1] = key end " +
+        "return list";
+
+    /**
+     * 扫描缓存组 key 返回 下一游标、key 列表 KEYS[1] 缓存组 ARGV[1] 游标 ARGV[2] 数量
+     */
+    private static final String HSCAN_SCRIPT =
+        "local result = redis.call('hscan', KEYS[1], ARGV[1], 'count', ARGV[2]) " +
+        "local list = {result[1]} " +
+        "for i = 1, #result[2], 2 do list[#list + 1] = result[2][i] end " +
+        "return list";
+
+    /**
+     * 扫描结束的游标
+     */
+    private static final String SCAN_END = "0";
+
+    /**
+     * 集群模式按前缀扫描时 游标与 key 迭代器 长时间未翻页自动失效
+     */
+    private static final Cache<String, Iterator<String>> CURSORS = Caffeine.newBuilder()
+        .expireAfterAccess(10, TimeUnit.MINUTES)
+        .maximumSize(100)
+        .build();
+
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    @Override
+    public List<SysCache> selectCacheCount(List<SysCache> caches) {
+        List<String> samples = null;
+        long total = 0;
+        List<SysCache> list = new ArrayList<>(caches.size());
+        for (SysCache cache : caches) {
+            SysCache sysCache = BeanUtil.toBean(cache, SysCache.class);
+            if (isCacheNames(cache.getCacheName())) {
+                sysCache.setKeyCount((long) RedisUtils.getClient().getMap(cache.getCacheName()).size());
+            } else {
+                // 所有前缀共用一次采样
+                if (samples == null) {
+                    samples = RedisUtils.randomKeys(SAMPLE_SIZE);
+                    total = RedisUtils.countKeys();
+                }
+                long matched = samples.stream().filter(key -> key.startsWith(cache.getCacheName())).count();
+                sysCache.setKeyCount(samples.isEmpty() ? 0 : total * matched / samples.size());
+            }
+            list.add(sysCache);
+        }
+        return list;
+    }
+
+    @Override
+    public SysCacheKeyPageVo selectCacheKeyPage(String cacheName, String cursor, int pageSize) {
+        boolean cacheNames = isCacheNames(cacheName);
+        if (!cacheNames && RedisUtils.getClient().getConfig().isClusterConfig()) {
+            return selectClusterKeyPage(cacheName, cursor, pageSize);
+        }
+        List<String> keys = new ArrayList<>(pageSize);
+        String scanCursor = StringUtils.isBlank(cursor) ? SCAN_END : cursor;
+        if (!StringUtils.isNumeric(scanCursor)) {
+            throw new ServiceException("游标已失效，请重新查询");
+        }
+        // SCAN 的数量仅为参考值 未满一页时继续扫描
+        do {
+            scanCursor = cacheNames ? hscan(cacheName, scanCursor, pageSize, keys)
+                : scan(cacheName + "*", scanCursor, pageSize, keys);
+        } while (keys.size() < pageSize && !SCAN_END.equals(scanCursor));
+        SysCacheKeyPageVo page = new SysCacheKeyPageVo();
+        page.setKeys(keys);
+        page.setCursor(SCAN_END.equals(scanCursor) ? null : scanCursor);
+        return page;
+    }
+
+    private String scan(String pattern, String cursor, int count, List<String> keys) {
+        List<byte[]> result = RedisUtils.getClient().getScript(ByteArrayCodec.INSTANCE).eval(RScript.Mode.READ_ONLY,
+            SCAN_SCRIPT, RScript.ReturnType.MULTI, Collections.singletonList(pattern),
+            cursor.getBytes(StandardCharsets.UTF_8), String.valueOf(count).getBytes(StandardCharsets.UTF_8));
+        // 去除 key 前缀 与其他 key 操作保持一致
+        String mappedPattern = new String(result.get(1), StandardCharsets.UTF_8);
+        int prefixLength = mappedPattern.length() - pattern.length();
+        for (byte[] key : result.subList(2, result.size())) {
+            keys.add(new String(key, StandardCharsets.UTF_8).substring(prefixLength));
+        }
+        return new String(result.get(0), StandardCharsets.UTF_8);
+    }
+
+    private String hscan(String cacheName, String cursor, int count, List<String> keys) {
+        List<byte[]> result = RedisUtils.getClient().getScript(ByteArrayCodec.INSTANCE).eval(RScript.Mode.READ_ONLY,
+            HSCAN_SCRIPT, RScript.ReturnType.MULTI, Collections.singletonList(cacheName),
+            cursor.getBytes(StandardCharsets.UTF_8), String.valueOf(count).getBytes(StandardCharsets.UTF_8));
+        Decoder<Object> decoder = RedisUtils.getClient().getMap(cacheName).getCodec().getMapKeyDecoder();
+        for (byte[] key : result.subList(1, result.size())) {
+            try {
+                keys.add(String.valueOf(decoder.decode(Unpooled.wrappedBuffer(key), null)));
+            } catch (IOException e) {
+                throw new ServiceException("缓存key解析失败");
+            }
+        }
+        return new String(result.get(0), StandardCharsets.UTF_8);
+    }
+
+    private SysCacheKeyPageVo selectClusterKeyPage(String cacheName, String cursor, int pageSize) {
+        Iterator<String> iterator;
+        if (StringUtils.isBlank(cursor)) {
+            iterator = RedisUtils.scanKeys(cacheName + "*", pageSize);
+        } else {
+            iterator = CURSORS.getIfPresent(cursor);
+            if (iterator == null) {
+                throw new ServiceException("游标已失效，请重新查询");
+            }
+        }
+        List<String> keys = new ArrayList<>(pageSize);
+        String nextCursor = null;
+        synchronized (iterator) {
+            while (keys.size() < pageSize && iterator.hasNext()) {
+                keys.add(iterator.next());
+            }
+            if (iterator.hasNext()) {
+                nextCursor = StringUtils.isBlank(cursor) ? IdUtil.fastSimpleUUID() : cursor;
+                CURSORS.put(nextCursor, iterator);
+            } else if (StringUtils.isNotBlank(cursor)) {
+                CURSORS.invalidate(cursor);
+            }
+        }
+        SysCacheKeyPageVo page = new SysCacheKeyPageVo();
+        page.setKeys(keys);
+        page.setCursor(nextCursor);
+        return page;
+    }
+
+    @Override
+    public SysCacheClearVo clearCacheAsync(String pattern) {
+        SysCacheClearVo task = new SysCacheClearVo();
+        task.setTaskId(IdUtil.fastSimpleUUID());
+        task.setPattern(pattern);
+        task.setStatus("0");
+        task.setDeletedCount(0L);
+        task.setStartTime(new Date());
+        saveTask(task);
+        Iterator<String> iterator = RedisUtils.scanKeys(pattern, CLEAR_BATCH_SIZE);
+        scheduledExecutorService.execute(() -> clearBatch(task, iterator));
+        return task;
+    }
+
+    private void clearBatch(SysCacheClearVo task, Iterator<String> iterator) {
+        try {
+            List<String> keys = new ArrayList<>(CLEAR_BATCH_SIZE);
+            while (keys.size() < CLEAR_BATCH_SIZE && iterator.hasNext()) {
+                String key = iterator.next();
+                // 布隆过滤器记录的是数据库中的 key 不随缓存清理
+                if (!StringUtils.contains(key, CacheConstants.BLOOM_FILTER_KEY)) {
+                    keys.add(key);
+                }
+            }
+            task.setDeletedCount(task.getDeletedCount() + RedisUtils.unlinkKeys(keys));
+            // 直接删除的 key 可能为缓存组 通知清空本地缓存
+            RedisUtils.clearNearCaches();
+            if (iterator.hasNext()) {
+                // 按 * 清理时任务本身也会被删除 每批重新写入
+                saveTask(task);
+                scheduledExecutorService.schedule(() -> clearBatch(task, iterator), CLEAR_INTERVAL, TimeUnit.MILLISECONDS);
+                return;
+            }
+            task.setStatus("1");
+            log.info("缓存清理完成 => {} 删除数量: {}", task.getPattern(), task.getDeletedCount());
+        } catch (Exception e) {
+            task.setStatus("2");
+            task.setErrorMsg(e.getMessage());
+            log.error("缓存清理失败 => {}", task.getPattern(), e);
+        }
+        task.setEndTime(new Date());
+        saveTask(task);
+    }
+
+    @Override
+    public SysCacheClearVo selectClearTask(String taskId) {
+        return RedisUtils.getCacheObject(CacheConstants.CACHE_CLEAR_TASK_KEY + taskId);
+    }
+
+    private void saveTask(SysCacheClearVo task) {
+        RedisUtils.setCacheObject(CacheConstants.CACHE_CLEAR_TASK_KEY + task.getTaskId(), task, CLEAR_TASK_EXPIRE);
+    }
+
+    private boolean isCacheNames(String cacheName) {
+        return !StringUtils.contains(cacheName, ":");
+    }
+
+}
@@ -1,9 +1,11 @@
 package com.ruoyi.system.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.dynamic.datasource.annotation.DS;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ruoyi.common.constant.CacheNames;
 import com.ruoyi.common.constant.UserConstants;
@@ -13,6 +15,7 @@ import com.ruoyi.common.core.service.ConfigService;
 import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.redis.CacheUtils;
+import com.ruoyi.common.utils.redis.KeyBloomFilter;
 import com.ruoyi.common.utils.spring.SpringUtils;
 import com.ruoyi.system.domain.SysConfig;
 import com.ruoyi.system.mapper.SysConfigMapper;
@@ -23,8 +26,10 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * 参数配置 服务层实现
@@ -68,7 +73,7 @@ public class SysConfigServiceImpl implements ISysConfigService, ConfigService {
      * @param configKey 参数key
      * @return 参数键值
      */
-    @Cacheable(cacheNames = CacheNames.SYS_CONFIG, key = "#configKey")
+    @Cacheable(cacheNames = CacheNames.SYS_CONFIG, key = "#configKey", sync = true)
     @Override
     public String selectConfigByKey(String configKey) {
         SysConfig retConfig = baseMapper.selectOne(new LambdaQueryWrapper<SysConfig>()
@@ -122,6 +127,7 @@ public class SysConfigServiceImpl implements ISysConfigService, ConfigService {
     public String insertConfig(SysConfig config) {
         int row = baseMapper.insert(config);
         if (row > 0) {
+            KeyBloomFilter.add(CacheNames.SYS_CONFIG, config.getConfigKey());
             return config.getConfigValue();
         }
         throw new ServiceException("操作失败");
@@ -148,6 +154,7 @@ public class SysConfigServiceImpl implements ISysConfigService, ConfigService {
                 .eq(SysConfig::getConfigKey, config.getConfigKey()));
         }
         if (row > 0) {
+            KeyBloomFilter.add(CacheNames.SYS_CONFIG, config.getConfigKey());
             return config.getConfigValue();
         }
         throw new ServiceException("操作失败");
@@ -176,8 +183,36 @@ public class SysConfigServiceImpl implements ISysConfigService, ConfigService {
     @Override
     public void loadingConfigCache() {
         List<SysConfig> configsList = selectConfigList(new SysConfig());
-        configsList.forEach(config ->
-            CacheUtils.put(CacheNames.SYS_CONFIG, config.getConfigKey(), config.getConfigValue()));
+        Map<String, String> configMap = new HashMap<>(configsList.size());
+        configsList.forEach(config -> configMap.put(config.getConfigKey(), config.getConfigValue()));
+        // 单次往返批量写入
+        CacheUtils.putAll(CacheNames.SYS_CONFIG, configMap);
+    }
+
+    /**
+     * 加载参数键名布隆过滤器 不存在的参数返回空字符串
+     */
+    @Override
+    public void loadingConfigKeyFilter() {
+        KeyBloomFilter.init(CacheNames.SYS_CONFIG, () -> baseMapper.selectObjs(
+                new LambdaQueryWrapper<SysConfig>().select(SysConfig::getConfigKey)),
+            10000, 0.01, StringUtils.EMPTY);
+    }
+
+    /**
+     * 获取参数数据版本 由数量与最后创建、修改时间组成
+     */
+    @Override
+    public String selectConfigVersion() {
+        List<Map<String, Object>> list = baseMapper.selectMaps(new QueryWrapper<SysConfig>()
+            .select("count(*) as cnt", "max(create_time) as max_create", "max(update_time) as max_update"));
+        if (CollUtil.isEmpty(list) || list.get(0) == null) {
+            return "";
+        }
+        // 不同数据库返回的列名大小写不同
+        Map<String, Object> row = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        row.putAll(list.get(0));
+        return row.get("cnt") + "," + row.get("max_create") + "," + row.get("max_update");
     }
 
     /**
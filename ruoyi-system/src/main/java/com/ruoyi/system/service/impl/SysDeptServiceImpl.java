@@ -8,17 +8,24 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.ruoyi.common.constant.CacheNames;
 import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.common.core.domain.dto.RoleDTO;
 import com.ruoyi.common.core.domain.entity.SysDept;
 import com.ruoyi.common.core.domain.entity.SysRole;
 import com.ruoyi.common.core.domain.entity.SysUser;
+import com.ruoyi.common.core.domain.model.LoginUser;
 import com.ruoyi.common.core.service.DeptService;
+import com.ruoyi.common.enums.DataScopeType;
 import com.ruoyi.common.exception.ServiceException;
-import com.ruoyi.common.helper.DataBaseHelper;
+import com.ruoyi.common.helper.DataPermissionHelper;
 import com.ruoyi.common.helper.LoginHelper;
+import com.ruoyi.common.utils.StreamUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.TreeBuildUtils;
 import com.ruoyi.common.utils.redis.CacheUtils;
-import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.system.domain.SysDeptClosure;
+import com.ruoyi.system.manager.DataScopeVerifier;
+import com.ruoyi.system.manager.DeptHierarchyIndex;
+import com.ruoyi.system.mapper.SysDeptClosureMapper;
 import com.ruoyi.system.mapper.SysDeptMapper;
 import com.ruoyi.system.mapper.SysRoleMapper;
 import com.ruoyi.system.mapper.SysUserMapper;
@@ -27,10 +34,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 /**
  * 部门管理 服务实现
@@ -44,6 +50,9 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
     private final SysDeptMapper baseMapper;
     private final SysRoleMapper roleMapper;
     private final SysUserMapper userMapper;
+    private final SysDeptClosureMapper deptClosureMapper;
+    private final DeptHierarchyIndex deptHierarchyIndex;
+    private final DataScopeVerifier dataScopeVerifier;
 
     /**
      * 查询部门管理数据
@@ -72,10 +81,48 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      */
     @Override
     public List<Tree<Long>> selectDeptTreeList(SysDept dept) {
-        List<SysDept> depts = this.selectDeptList(dept);
+        List<SysDept> depts = this.selectVisibleDeptListByIndex();
+        if (depts == null) {
+            depts = this.selectDeptList(dept);
+        } else {
+            depts.removeIf(d -> (ObjectUtil.isNotNull(dept.getDeptId()) && !dept.getDeptId().equals(d.getDeptId()))
+                || (ObjectUtil.isNotNull(dept.getParentId()) && !dept.getParentId().equals(d.getParentId()))
+                || (StringUtils.isNotBlank(dept.getDeptName()) && !StringUtils.contains(d.getDeptName(), dept.getDeptName()))
+                || (StringUtils.isNotBlank(dept.getStatus()) && !dept.getStatus().equals(d.getStatus())));
+        }
         return buildDeptTreeSelect(depts);
     }
 
+    /**
+     * 通过部门层级索引获取当前用户可见部门
+     * <p>
+     * 仅处理 全部、本部门、本部门及以下 数据权限 其余类型需经数据库解析 返回 null
+     *
+     * @return 部门列表 无法确定时返回 null
+     */
+    private List<SysDept> selectVisibleDeptListByIndex() {
+        if (LoginHelper.isAdmin()) {
+            return deptHierarchyIndex.selectDeptList(null);
+        }
+        LoginUser user = LoginHelper.getLoginUser();
+        Set<Long> deptIds = new HashSet<>();
+        for (RoleDTO role : user.getRoles()) {
+            DataScopeType type = DataScopeType.findCode(role.getDataScope());
+            if (type == DataScopeType.ALL) {
+                return deptHierarchyIndex.selectDeptList(null);
+            } else if (type == DataScopeType.DEPT) {
+                deptIds.add(user.getDeptId());
+            } else if (type == DataScopeType.DEPT_AND_CHILD) {
+                for (long deptId : deptHierarchyIndex.selectDeptAndChildIds(user.getDeptId())) {
+                    deptIds.add(deptId);
+                }
+            } else {
+                return null;
+            }
+        }
+        return deptHierarchyIndex.selectDeptList(deptIds);
+    }
+
     /**
      * 构建前端所需要下拉树结构
      *
@@ -112,7 +159,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      * @param deptId 部门ID
      * @return 部门信息
      */
-    @Cacheable(cacheNames = CacheNames.SYS_DEPT, key = "#deptId")
+    @Cacheable(cacheNames = CacheNames.SYS_DEPT, key = "#deptId", sync = true)
     @Override
     public SysDept selectDeptById(Long deptId) {
         SysDept dept = baseMapper.selectById(deptId);
@@ -133,9 +180,11 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      */
     @Override
     public String selectDeptNameByIds(String deptIds) {
+        List<Long> ids = StringUtils.splitTo(deptIds, Convert::toLong);
+        Map<Long, SysDept> deptMap = CacheUtils.getAll(CacheNames.SYS_DEPT, ids, this::selectDeptMapByIds);
         List<String> list = new ArrayList<>();
-        for (Long id : StringUtils.splitTo(deptIds, Convert::toLong)) {
-            SysDept dept = SpringUtils.getAopProxy(this).selectDeptById(id);
+        for (Long id : ids) {
+            SysDept dept = deptMap.get(id);
             if (ObjectUtil.isNotNull(dept)) {
                 list.add(dept.getDeptName());
             }
@@ -143,6 +192,24 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
         return String.join(StringUtils.SEPARATOR, list);
     }
 
+    /**
+     * 批量查询部门(含父部门名称) 与 selectDeptById 缓存内容一致
+     */
+    private Map<Long, SysDept> selectDeptMapByIds(Collection<Long> deptIds) {
+        List<SysDept> depts = baseMapper.selectBatchIds(deptIds);
+        if (CollUtil.isEmpty(depts)) {
+            return Collections.emptyMap();
+        }
+        Set<Long> parentIds = StreamUtils.toSet(depts, SysDept::getParentId);
+        Map<Long, String> parentNames = StreamUtils.toMap(baseMapper.selectList(new LambdaQueryWrapper<SysDept>()
+                .select(SysDept::getDeptId, SysDept::getDeptName).in(SysDept::getDeptId, parentIds)),
+            SysDept::getDeptId, SysDept::getDeptName);
+        for (SysDept dept : depts) {
+            dept.setParentName(parentNames.get(dept.getParentId()));
+        }
+        return StreamUtils.toIdentityMap(depts, SysDept::getDeptId);
+    }
+
     /**
      * 根据ID查询所有子部门数（正常状态）
      *
@@ -151,9 +218,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      */
     @Override
     public long selectNormalChildrenDeptById(Long deptId) {
-        return baseMapper.selectCount(new LambdaQueryWrapper<SysDept>()
-            .eq(SysDept::getStatus, UserConstants.DEPT_NORMAL)
-            .apply(DataBaseHelper.findInSet(deptId, "ancestors")));
+        return deptHierarchyIndex.countChildren(deptId, UserConstants.DEPT_NORMAL);
     }
 
     /**
@@ -202,14 +267,35 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      */
     @Override
     public void checkDeptDataScope(Long deptId) {
-        if (!LoginHelper.isAdmin()) {
-            SysDept dept = new SysDept();
-            dept.setDeptId(deptId);
-            List<SysDept> depts = this.selectDeptList(dept);
-            if (CollUtil.isEmpty(depts)) {
-                throw new ServiceException("没有权限访问部门数据！");
+        if (ObjectUtil.isNull(deptId)) {
+            return;
+        }
+        if (!LoginHelper.isAdmin() && !checkDeptDataScopeByIndex(deptId)) {
+            dataScopeVerifier.checkDeptDataScope(Collections.singletonList(deptId));
+        }
+    }
+
+    /**
+     * 通过部门层级索引校验 全部、本部门、本部门及以下 数据权限
+     * 未通过时仍需查询数据库确认(例如自定义数据权限)
+     *
+     * @param deptId 部门id
+     * @return 是否可见
+     */
+    private boolean checkDeptDataScopeByIndex(Long deptId) {
+        if (!deptHierarchyIndex.contains(deptId)) {
+            return false;
+        }
+        LoginUser user = LoginHelper.getLoginUser();
+        for (RoleDTO role : user.getRoles()) {
+            DataScopeType type = DataScopeType.findCode(role.getDataScope());
+            if (type == DataScopeType.ALL
+                || (type == DataScopeType.DEPT && deptId.equals(user.getDeptId()))
+                || (type == DataScopeType.DEPT_AND_CHILD && deptHierarchyIndex.isUnder(deptId, user.getDeptId()))) {
+                return true;
             }
         }
+        return false;
     }
 
     /**
@@ -219,6 +305,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      * @return 结果
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public int insertDept(SysDept dept) {
         SysDept info = baseMapper.selectById(dept.getParentId());
         // 如果父节点不为正常状态,则不允许新增子节点
@@ -226,7 +313,11 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
             throw new ServiceException("部门停用，不允许新增");
         }
         dept.setAncestors(info.getAncestors() + StringUtils.SEPARATOR + dept.getParentId());
-        return baseMapper.insert(dept);
+        int result = baseMapper.insert(dept);
+        insertDeptClosure(dept.getDeptId(), dept.getParentId());
+        DataPermissionHelper.refreshCache();
+        deptHierarchyIndex.refresh();
+        return result;
     }
 
     /**
@@ -237,6 +328,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      */
     @CacheEvict(cacheNames = CacheNames.SYS_DEPT, key = "#dept.deptId")
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public int updateDept(SysDept dept) {
         SysDept newParentDept = baseMapper.selectById(dept.getParentId());
         SysDept oldDept = baseMapper.selectById(dept.getDeptId());
@@ -245,6 +337,9 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
             String oldAncestors = oldDept.getAncestors();
             dept.setAncestors(newAncestors);
             updateDeptChildren(dept.getDeptId(), newAncestors, oldAncestors);
+            if (!ObjectUtil.equal(oldDept.getParentId(), newParentDept.getDeptId())) {
+                moveDeptClosure(dept.getDeptId(), newParentDept.getDeptId());
+            }
         }
         int result = baseMapper.updateById(dept);
         if (UserConstants.DEPT_NORMAL.equals(dept.getStatus()) && StringUtils.isNotEmpty(dept.getAncestors())
@@ -252,6 +347,8 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
             // 如果该部门是启用状态，则启用该部门的所有上级部门
             updateParentDeptStatusNormal(dept);
         }
+        DataPermissionHelper.refreshCache();
+        deptHierarchyIndex.refresh();
         return result;
     }
 
@@ -277,7 +374,7 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      */
     public void updateDeptChildren(Long deptId, String newAncestors, String oldAncestors) {
         List<SysDept> children = baseMapper.selectList(new LambdaQueryWrapper<SysDept>()
-            .apply(DataBaseHelper.findInSet(deptId, "ancestors")));
+            .inSql(SysDept::getDeptId, "select descendant_id from sys_dept_closure where ancestor_id = " + deptId + " and depth > 0"));
         List<SysDept> list = new ArrayList<>();
         for (SysDept child : children) {
             SysDept dept = new SysDept();
@@ -300,8 +397,74 @@ public class SysDeptServiceImpl implements ISysDeptService, DeptService {
      */
     @CacheEvict(cacheNames = CacheNames.SYS_DEPT, key = "#deptId")
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public int deleteDeptById(Long deptId) {
-        return baseMapper.deleteById(deptId);
+        int result = baseMapper.deleteById(deptId);
+        deptClosureMapper.delete(new LambdaQueryWrapper<SysDeptClosure>()
+            .eq(SysDeptClosure::getDescendantId, deptId)
+            .or().eq(SysDeptClosure::getAncestorId, deptId));
+        DataPermissionHelper.refreshCache();
+        deptHierarchyIndex.refresh();
+        return result;
+    }
+
+    /**
+     * 新增部门闭包关系
+     *
+     * @param deptId   部门ID
+     * @param parentId 父部门ID
+     */
+    private void insertDeptClosure(Long deptId, Long parentId) {
+        List<SysDeptClosure> parents = deptClosureMapper.selectList(new LambdaQueryWrapper<SysDeptClosure>()
+            .eq(SysDeptClosure::getDescendantId, parentId));
+        List<SysDeptClosure> list = StreamUtils.toList(parents,
+            parent -> buildDeptClosure(parent.getAncestorId(), deptId, parent.getDepth() + 1));
+        list.add(buildDeptClosure(deptId, deptId, 0));
+        deptClosureMapper.insertBatch(list);
+    }
+
+    /**
+     * 移动部门子树的闭包关系
+     *
+     * @param deptId   被移动的部门ID
+     * @param parentId 新的父部门ID
+     */
+    private void moveDeptClosure(Long deptId, Long parentId) {
+        // 被移动部门的子树(含自身)
+        List<SysDeptClosure> subtree = deptClosureMapper.selectList(new LambdaQueryWrapper<SysDeptClosure>()
+            .eq(SysDeptClosure::getAncestorId, deptId));
+        List<Long> subtreeIds = StreamUtils.toList(subtree, SysDeptClosure::getDescendantId);
+        // 断开子树与原有上级的关系
+        List<Long> oldAncestorIds = StreamUtils.toList(deptClosureMapper.selectList(new LambdaQueryWrapper<SysDeptClosure>()
+            .eq(SysDeptClosure::getDescendantId, deptId)
+            .gt(SysDeptClosure::getDepth, 0)), SysDeptClosure::getAncestorId);
+        if (CollUtil.isNotEmpty(oldAncestorIds)) {
+            for (List<Long> ids : CollUtil.split(subtreeIds, 1000)) {
+                deptClosureMapper.delete(new LambdaQueryWrapper<SysDeptClosure>()
+                    .in(SysDeptClosure::getAncestorId, oldAncestorIds)
+                    .in(SysDeptClosure::getDescendantId, ids));
+            }
+        }
+        // 建立子树与新上级的关系
+        List<SysDeptClosure> parents = deptClosureMapper.selectList(new LambdaQueryWrapper<SysDeptClosure>()
+            .eq(SysDeptClosure::getDescendantId, parentId));
+        List<SysDeptClosure> list = new ArrayList<>();
+        for (SysDeptClosure parent : parents) {
+            for (SysDeptClosure child : subtree) {
+                list.add(buildDeptClosure(parent.getAncestorId(), child.getDescendantId(), parent.getDepth() + child.getDepth() + 1));
+            }
+        }
+        if (CollUtil.isNotEmpty(list)) {
+            deptClosureMapper.insertBatch(list);
+        }
+    }
+
+    private SysDeptClosure buildDeptClosure(Long ancestorId, Long descendantId, int depth) {
+        SysDeptClosure closure = new SysDeptClosure();
+        closure.setAncestorId(ancestorId);
+        closure.setDescendantId(descendantId);
+        closure.setDepth(depth);
+        return closure;
     }
 
 }
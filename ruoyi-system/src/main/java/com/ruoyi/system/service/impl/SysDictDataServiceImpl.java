@@ -9,10 +9,10 @@ import com.ruoyi.common.core.page.TableDataInfo;
 import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.redis.CacheUtils;
+import com.ruoyi.system.manager.DictIndexManager;
 import com.ruoyi.system.mapper.SysDictDataMapper;
 import com.ruoyi.system.service.ISysDictDataService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -27,6 +27,7 @@ import java.util.List;
 public class SysDictDataServiceImpl implements ISysDictDataService {
 
     private final SysDictDataMapper baseMapper;
+    private final DictIndexManager dictIndexManager;
 
     @Override
     public TableDataInfo<SysDictData> selectPageDictDataList(SysDictData dictData, PageQuery pageQuery) {
@@ -92,6 +93,7 @@ public class SysDictDataServiceImpl implements ISysDictDataService {
             SysDictData data = selectDictDataById(dictCode);
             baseMapper.deleteById(dictCode);
             CacheUtils.evict(CacheNames.SYS_DICT, data.getDictType());
+            dictIndexManager.refresh(data.getDictType());
         }
     }
 
@@ -101,12 +103,15 @@ public class SysDictDataServiceImpl implements ISysDictDataService {
      * @param data 字典数据信息
      * @return 结果
      */
-    @CachePut(cacheNames = CacheNames.SYS_DICT, key = "#data.dictType")
     @Override
     public List<SysDictData> insertDictData(SysDictData data) {
         int row = baseMapper.insert(data);
         if (row > 0) {
-            return baseMapper.selectDictDataByType(data.getDictType());
+            List<SysDictData> dictDatas = baseMapper.selectDictDataByType(data.getDictType());
+            // 先写缓存再刷新索引 避免索引按旧缓存重建
+            CacheUtils.put(CacheNames.SYS_DICT, data.getDictType(), dictDatas);
+            dictIndexManager.refresh(data.getDictType());
+            return dictDatas;
         }
         throw new ServiceException("操作失败");
     }
@@ -117,12 +122,15 @@ public class SysDictDataServiceImpl implements ISysDictDataService {
      * @param data 字典数据信息
      * @return 结果
      */
-    @CachePut(cacheNames = CacheNames.SYS_DICT, key = "#data.dictType")
     @Override
     public List<SysDictData> updateDictData(SysDictData data) {
         int row = baseMapper.updateById(data);
         if (row > 0) {
-            return baseMapper.selectDictDataByType(data.getDictType());
+            List<SysDictData> dictDatas = baseMapper.selectDictDataByType(data.getDictType());
+            // 先写缓存再刷新索引 避免索引按旧缓存重建
+            CacheUtils.put(CacheNames.SYS_DICT, data.getDictType(), dictDatas);
+            dictIndexManager.refresh(data.getDictType());
+            return dictDatas;
         }
         throw new ServiceException("操作失败");
     }
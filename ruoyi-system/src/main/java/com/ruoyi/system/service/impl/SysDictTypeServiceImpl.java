@@ -1,12 +1,11 @@
 package com.ruoyi.system.service.impl;
 
-import cn.dev33.satoken.context.SaHolder;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.ruoyi.common.constant.CacheConstants;
 import com.ruoyi.common.constant.CacheNames;
 import com.ruoyi.common.constant.UserConstants;
 import com.ruoyi.common.core.domain.PageQuery;
@@ -18,7 +17,10 @@ import com.ruoyi.common.exception.ServiceException;
 import com.ruoyi.common.utils.StreamUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.redis.CacheUtils;
+import com.ruoyi.common.utils.redis.KeyBloomFilter;
 import com.ruoyi.common.utils.spring.SpringUtils;
+import com.ruoyi.system.manager.DictIndex;
+import com.ruoyi.system.manager.DictIndexManager;
 import com.ruoyi.system.mapper.SysDictDataMapper;
 import com.ruoyi.system.mapper.SysDictTypeMapper;
 import com.ruoyi.system.service.ISysDictTypeService;
@@ -29,7 +31,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 字典 业务层处理
@@ -42,6 +43,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
 
     private final SysDictTypeMapper baseMapper;
     private final SysDictDataMapper dictDataMapper;
+    private final DictIndexManager dictIndexManager;
 
     @Override
     public TableDataInfo<SysDictType> selectPageDictTypeList(SysDictType dictType, PageQuery pageQuery) {
@@ -89,7 +91,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
      * @param dictType 字典类型
      * @return 字典数据集合信息
      */
-    @Cacheable(cacheNames = CacheNames.SYS_DICT, key = "#dictType")
+    @Cacheable(cacheNames = CacheNames.SYS_DICT, key = "#dictType", sync = true)
     @Override
     public List<SysDictData> selectDictDataByType(String dictType) {
         List<SysDictData> dictDatas = dictDataMapper.selectDictDataByType(dictType);
@@ -135,6 +137,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
                 throw new ServiceException(String.format("%1$s已分配,不能删除", dictType.getDictName()));
             }
             CacheUtils.evict(CacheNames.SYS_DICT, dictType.getDictType());
+            dictIndexManager.refresh(dictType.getDictType());
         }
         baseMapper.deleteBatchIds(Arrays.asList(dictIds));
     }
@@ -147,10 +150,38 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
         List<SysDictData> dictDataList = dictDataMapper.selectList(
             new LambdaQueryWrapper<SysDictData>().eq(SysDictData::getStatus, UserConstants.DICT_NORMAL));
         Map<String, List<SysDictData>> dictDataMap = StreamUtils.groupByKey(dictDataList, SysDictData::getDictType);
-        dictDataMap.forEach((k, v) -> {
-            List<SysDictData> dictList = StreamUtils.sorted(v, Comparator.comparing(SysDictData::getDictSort));
-            CacheUtils.put(CacheNames.SYS_DICT, k, dictList);
-        });
+        Map<String, List<SysDictData>> cacheMap = new HashMap<>(dictDataMap.size());
+        dictDataMap.forEach((k, v) ->
+            cacheMap.put(k, StreamUtils.sorted(v, Comparator.comparing(SysDictData::getDictSort))));
+        // 单次往返批量写入
+        CacheUtils.putAll(CacheNames.SYS_DICT, cacheMap);
+        dictIndexManager.refresh(null);
+    }
+
+    /**
+     * 加载字典类型布隆过滤器
+     */
+    @Override
+    public void loadingDictKeyFilter() {
+        KeyBloomFilter.init(CacheNames.SYS_DICT, () -> baseMapper.selectObjs(
+                new LambdaQueryWrapper<SysDictType>().select(SysDictType::getDictType)),
+            10000, 0.01, null);
+    }
+
+    /**
+     * 获取字典数据版本 由数量与最后创建、修改时间组成
+     */
+    @Override
+    public String selectDictVersion() {
+        List<Map<String, Object>> list = dictDataMapper.selectMaps(new QueryWrapper<SysDictData>()
+            .select("count(*) as cnt", "max(create_time) as max_create", "max(update_time) as max_update"));
+        if (CollUtil.isEmpty(list) || list.get(0) == null) {
+            return "";
+        }
+        // 不同数据库返回的列名大小写不同
+        Map<String, Object> row = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        row.putAll(list.get(0));
+        return row.get("cnt") + "," + row.get("max_create") + "," + row.get("max_update");
     }
 
     /**
@@ -159,6 +190,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
     @Override
     public void clearDictCache() {
         CacheUtils.clear(CacheNames.SYS_DICT);
+        dictIndexManager.refresh(null);
     }
 
     /**
@@ -181,6 +213,8 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
     public List<SysDictData> insertDictType(SysDictType dict) {
         int row = baseMapper.insert(dict);
         if (row > 0) {
+            KeyBloomFilter.add(CacheNames.SYS_DICT, dict.getDictType());
+            dictIndexManager.refresh(dict.getDictType());
             // 新增 type 下无 data 数据 返回空防止缓存穿透
             return new ArrayList<>();
         }
@@ -193,7 +227,6 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
      * @param dict 字典类型信息
      * @return 结果
      */
-    @CachePut(cacheNames = CacheNames.SYS_DICT, key = "#dict.dictType")
     @Override
     @Transactional(rollbackFor = Exception.class)
     public List<SysDictData> updateDictType(SysDictType dict) {
@@ -203,8 +236,14 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
             .eq(SysDictData::getDictType, oldDict.getDictType()));
         int row = baseMapper.updateById(dict);
         if (row > 0) {
+            KeyBloomFilter.add(CacheNames.SYS_DICT, dict.getDictType());
+            List<SysDictData> dictDatas = dictDataMapper.selectDictDataByType(dict.getDictType());
             CacheUtils.evict(CacheNames.SYS_DICT, oldDict.getDictType());
-            return dictDataMapper.selectDictDataByType(dict.getDictType());
+            // 先写缓存再刷新索引 事务中缓存写入与索引刷新均在提交后按注册顺序执行
+            CacheUtils.put(CacheNames.SYS_DICT, dict.getDictType(), dictDatas);
+            dictIndexManager.refresh(oldDict.getDictType());
+            dictIndexManager.refresh(dict.getDictType());
+            return dictDatas;
         }
         throw new ServiceException("操作失败");
     }
@@ -231,24 +270,9 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
      * @param separator 分隔符
      * @return 字典标签
      */
-    @SuppressWarnings("unchecked cast")
     @Override
     public String getDictLabel(String dictType, String dictValue, String separator) {
-        // 优先从本地缓存获取
-        List<SysDictData> datas = (List<SysDictData>) SaHolder.getStorage().get(CacheConstants.SYS_DICT_KEY + dictType);
-        if (ObjectUtil.isNull(datas)) {
-            datas = SpringUtils.getAopProxy(this).selectDictDataByType(dictType);
-            SaHolder.getStorage().set(CacheConstants.SYS_DICT_KEY + dictType, datas);
-        }
-
-        Map<String, String> map = StreamUtils.toMap(datas, SysDictData::getDictValue, SysDictData::getDictLabel);
-        if (StringUtils.containsAny(dictValue, separator)) {
-            return Arrays.stream(dictValue.split(separator))
-                .map(v -> map.getOrDefault(v, StringUtils.EMPTY))
-                .collect(Collectors.joining(separator));
-        } else {
-            return map.getOrDefault(dictValue, StringUtils.EMPTY);
-        }
+        return getDictIndex(dictType).getLabel(dictValue, separator);
     }
 
     /**
@@ -259,29 +283,25 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService, DictService
      * @param separator 分隔符
      * @return 字典值
      */
-    @SuppressWarnings("unchecked cast")
     @Override
     public String getDictValue(String dictType, String dictLabel, String separator) {
-        // 优先从本地缓存获取
-        List<SysDictData> datas = (List<SysDictData>) SaHolder.getStorage().get(CacheConstants.SYS_DICT_KEY + dictType);
-        if (ObjectUtil.isNull(datas)) {
-            datas = SpringUtils.getAopProxy(this).selectDictDataByType(dictType);
-            SaHolder.getStorage().set(CacheConstants.SYS_DICT_KEY + dictType, datas);
-        }
-
-        Map<String, String> map = StreamUtils.toMap(datas, SysDictData::getDictLabel, SysDictData::getDictValue);
-        if (StringUtils.containsAny(dictLabel, separator)) {
-            return Arrays.stream(dictLabel.split(separator))
-                .map(l -> map.getOrDefault(l, StringUtils.EMPTY))
-                .collect(Collectors.joining(separator));
-        } else {
-            return map.getOrDefault(dictLabel, StringUtils.EMPTY);
-        }
+        return getDictIndex(dictType).getValue(dictLabel, separator);
     }
 
     @Override
     public Map<String, String> getAllDictByDictType(String dictType) {
-        List<SysDictData> list = selectDictDataByType(dictType);
-        return StreamUtils.toMap(list, SysDictData::getDictValue, SysDictData::getDictLabel);
+        return getDictIndex(dictType).getValueToLabel();
+    }
+
+    /**
+     * 获取字典索引 本地不存在时从字典缓存构建
+     * <p>
+     * 索引变更通知与本地字典缓存失效通知分别送达 先从 redis 读取 避免使用尚未失效的本地字典缓存构建索引
+     */
+    private DictIndex getDictIndex(String dictType) {
+        return dictIndexManager.getIndex(dictType, type -> {
+            List<SysDictData> dictDatas = CacheUtils.getRemote(CacheNames.SYS_DICT, type);
+            return dictDatas != null ? dictDatas : SpringUtils.getAopProxy(this).selectDictDataByType(type);
+        });
     }
 }
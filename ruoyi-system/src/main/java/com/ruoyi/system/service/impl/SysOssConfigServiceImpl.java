@@ -27,7 +27,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 对象存储配置Service业务层处理
@@ -50,13 +52,15 @@ public class SysOssConfigServiceImpl implements ISysOssConfigService {
     public void init() {
         List<SysOssConfig> list = baseMapper.selectList();
         // 加载OSS初始化配置
+        Map<String, String> configMap = new HashMap<>(list.size());
         for (SysOssConfig config : list) {
             String configKey = config.getConfigKey();
             if ("0".equals(config.getStatus())) {
                 RedisUtils.setCacheObject(OssConstant.DEFAULT_CONFIG_KEY, configKey);
             }
-            CacheUtils.put(CacheNames.SYS_OSS_CONFIG, config.getConfigKey(), JsonUtils.toJsonString(config));
+            configMap.put(configKey, JsonUtils.toJsonString(config));
         }
+        CacheUtils.putAll(CacheNames.SYS_OSS_CONFIG, configMap);
     }
 
     @Override
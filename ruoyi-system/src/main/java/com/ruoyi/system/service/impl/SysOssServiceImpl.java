@@ -12,8 +12,11 @@ import com.ruoyi.common.core.domain.PageQuery;
 import com.ruoyi.common.core.page.TableDataInfo;
 import com.ruoyi.common.core.service.OssService;
 import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.utils.StreamUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.file.FileUtils;
+import com.ruoyi.common.utils.redis.CacheUtils;
+import com.ruoyi.common.utils.redis.KeyBloomFilter;
 import com.ruoyi.common.utils.spring.SpringUtils;
 import com.ruoyi.oss.core.OssClient;
 import com.ruoyi.oss.entity.UploadResult;
@@ -63,8 +66,9 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
     @Override
     public List<SysOssVo> listByIds(Collection<Long> ossIds) {
         List<SysOssVo> list = new ArrayList<>();
+        Map<Long, SysOssVo> ossMap = selectOssMapByIds(ossIds);
         for (Long id : ossIds) {
-            SysOssVo vo = SpringUtils.getAopProxy(this).getById(id);
+            SysOssVo vo = ossMap.get(id);
             if (ObjectUtil.isNotNull(vo)) {
                 list.add(this.matchingUrl(vo));
             }
@@ -74,9 +78,11 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
 
     @Override
     public String selectUrlByIds(String ossIds) {
+        List<Long> ids = StringUtils.splitTo(ossIds, Convert::toLong);
+        Map<Long, SysOssVo> ossMap = selectOssMapByIds(ids);
         List<String> list = new ArrayList<>();
-        for (Long id : StringUtils.splitTo(ossIds, Convert::toLong)) {
-            SysOssVo vo = SpringUtils.getAopProxy(this).getById(id);
+        for (Long id : ids) {
+            SysOssVo vo = ossMap.get(id);
             if (ObjectUtil.isNotNull(vo)) {
                 list.add(this.matchingUrl(vo).getUrl());
             }
@@ -84,6 +90,14 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
         return String.join(StringUtils.SEPARATOR, list);
     }
 
+    /**
+     * 批量获取OSS对象 优先读取缓存 未命中的一次查询并写回缓存
+     */
+    private Map<Long, SysOssVo> selectOssMapByIds(Collection<Long> ossIds) {
+        return CacheUtils.getAll(CacheNames.SYS_OSS, ossIds,
+            ids -> StreamUtils.toIdentityMap(baseMapper.selectVoBatchIds(ids), SysOssVo::getOssId));
+    }
+
     private LambdaQueryWrapper<SysOss> buildQueryWrapper(SysOssBo bo) {
         Map<String, Object> params = bo.getParams();
         LambdaQueryWrapper<SysOss> lqw = Wrappers.lambdaQuery();
@@ -98,7 +112,7 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
         return lqw;
     }
 
-    @Cacheable(cacheNames = CacheNames.SYS_OSS, key = "#ossId")
+    @Cacheable(cacheNames = CacheNames.SYS_OSS, key = "#ossId", sync = true)
     @Override
     public SysOssVo getById(Long ossId) {
         return baseMapper.selectVoById(ossId);
@@ -155,6 +169,7 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
         oss.setOriginalName(originalfileName);
         oss.setService(configKey);
         baseMapper.insert(oss);
+        KeyBloomFilter.add(CacheNames.SYS_OSS, oss.getOssId());
         SysOssVo sysOssVo = BeanUtil.toBean(oss, SysOssVo.class);
         return this.matchingUrl(sysOssVo);
     }
@@ -172,6 +187,16 @@ public class SysOssServiceImpl implements ISysOssService, OssService {
         return baseMapper.deleteBatchIds(ids) > 0;
     }
 
+    /**
+     * 加载OSS对象ID布隆过滤器
+     */
+    @Override
+    public void loadingOssKeyFilter() {
+        KeyBloomFilter.init(CacheNames.SYS_OSS, () -> baseMapper.selectObjs(
+                new LambdaQueryWrapper<SysOss>().select(SysOss::getOssId)),
+            1000000, 0.01, null);
+    }
+
     /**
      * 匹配Url
      *
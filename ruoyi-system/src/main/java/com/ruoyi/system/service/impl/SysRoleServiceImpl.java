@@ -15,12 +15,14 @@ import com.ruoyi.common.core.domain.entity.SysRole;
 import com.ruoyi.common.core.domain.model.LoginUser;
 import com.ruoyi.common.core.page.TableDataInfo;
 import com.ruoyi.common.exception.ServiceException;
+import com.ruoyi.common.helper.DataPermissionHelper;
 import com.ruoyi.common.helper.LoginHelper;
 import com.ruoyi.common.utils.StreamUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.system.domain.SysRoleDept;
 import com.ruoyi.system.domain.SysRoleMenu;
 import com.ruoyi.system.domain.SysUserRole;
+import com.ruoyi.system.manager.DataScopeVerifier;
 import com.ruoyi.system.mapper.SysRoleDeptMapper;
 import com.ruoyi.system.mapper.SysRoleMapper;
 import com.ruoyi.system.mapper.SysRoleMenuMapper;
@@ -45,6 +47,7 @@ public class SysRoleServiceImpl implements ISysRoleService {
     private final SysRoleMenuMapper roleMenuMapper;
     private final SysUserRoleMapper userRoleMapper;
     private final SysRoleDeptMapper roleDeptMapper;
+    private final DataScopeVerifier dataScopeVerifier;
 
     @Override
     public TableDataInfo<SysRole> selectPageRoleList(SysRole role, PageQuery pageQuery) {
@@ -209,14 +212,17 @@ public class SysRoleServiceImpl implements ISysRoleService {
      */
     @Override
     public void checkRoleDataScope(Long roleId) {
-        if (!LoginHelper.isAdmin()) {
-            SysRole role = new SysRole();
-            role.setRoleId(roleId);
-            List<SysRole> roles = this.selectRoleList(role);
-            if (CollUtil.isEmpty(roles)) {
-                throw new ServiceException("没有权限访问角色数据！");
-            }
-        }
+        dataScopeVerifier.checkRoleDataScope(Collections.singletonList(roleId));
+    }
+
+    /**
+     * 批量校验角色是否有数据权限
+     *
+     * @param roleIds 角色id
+     */
+    @Override
+    public void checkRoleDataScope(Collection<Long> roleIds) {
+        dataScopeVerifier.checkRoleDataScope(roleIds);
     }
 
     /**
@@ -257,6 +263,7 @@ public class SysRoleServiceImpl implements ISysRoleService {
         baseMapper.updateById(role);
         // 删除角色与菜单关联
         roleMenuMapper.delete(new LambdaQueryWrapper<SysRoleMenu>().eq(SysRoleMenu::getRoleId, role.getRoleId()));
+        DataPermissionHelper.refreshCache();
         return insertRoleMenu(role);
     }
 
@@ -284,6 +291,7 @@ public class SysRoleServiceImpl implements ISysRoleService {
         baseMapper.updateById(role);
         // 删除角色与部门关联
         roleDeptMapper.delete(new LambdaQueryWrapper<SysRoleDept>().eq(SysRoleDept::getRoleId, role.getRoleId()));
+        DataPermissionHelper.refreshCache();
         // 新增角色和部门信息（数据权限）
         return insertRoleDept(role);
     }
@@ -343,6 +351,7 @@ public class SysRoleServiceImpl implements ISysRoleService {
         roleMenuMapper.delete(new LambdaQueryWrapper<SysRoleMenu>().eq(SysRoleMenu::getRoleId, roleId));
         // 删除角色与部门关联
         roleDeptMapper.delete(new LambdaQueryWrapper<SysRoleDept>().eq(SysRoleDept::getRoleId, roleId));
+        DataPermissionHelper.refreshCache();
         return baseMapper.deleteById(roleId);
     }
 
@@ -355,19 +364,20 @@ public class SysRoleServiceImpl implements ISysRoleService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public int deleteRoleByIds(Long[] roleIds) {
+        List<Long> ids = Arrays.asList(roleIds);
+        checkRoleDataScope(ids);
         for (Long roleId : roleIds) {
             SysRole role = selectRoleById(roleId);
             checkRoleAllowed(role);
-            checkRoleDataScope(roleId);
             if (countUserRoleByRoleId(roleId) > 0) {
                 throw new ServiceException(String.format("%1$s已分配,不能删除", role.getRoleName()));
             }
         }
-        List<Long> ids = Arrays.asList(roleIds);
         // 删除角色与菜单关联
         roleMenuMapper.delete(new LambdaQueryWrapper<SysRoleMenu>().in(SysRoleMenu::getRoleId, ids));
         // 删除角色与部门关联
         roleDeptMapper.delete(new LambdaQueryWrapper<SysRoleDept>().in(SysRoleDept::getRoleId, ids));
+        DataPermissionHelper.refreshCache();
         return baseMapper.deleteBatchIds(ids);
     }
 
@@ -51,6 +51,33 @@ insert into sys_dept values(108,  102, '0,100,102',  '市场部门',   1, '若
 insert into sys_dept values(109,  102, '0,100,102',  '财务部门',   2, '若依', '15888888888', 'ry@qq.com', '0', '0', 'admin', sysdate, '', null);
 
 
+-- ----------------------------
+-- 部门闭包表（部门与全部上级部门的关系 含自身）
+-- ----------------------------
+create table sys_dept_closure (
+  ancestor_id       number(20)      not null,
+  descendant_id     number(20)      not null,
+  depth             number(4)       default 0
+);
+
+alter table sys_dept_closure add constraint pk_sys_dept_closure primary key (ancestor_id, descendant_id);
+create index idx_sys_dept_closure_d on sys_dept_closure (descendant_id);
+
+comment on table  sys_dept_closure               is '部门闭包表';
+comment on column sys_dept_closure.ancestor_id   is '祖先部门id';
+comment on column sys_dept_closure.descendant_id is '后代部门id';
+comment on column sys_dept_closure.depth         is '层级距离（0代表自身）';
+
+insert into sys_dept_closure (ancestor_id, descendant_id, depth)
+select d.dept_id, d.dept_id, 0 from sys_dept d where d.del_flag = '0';
+insert into sys_dept_closure (ancestor_id, descendant_id, depth)
+select a.dept_id, d.dept_id,
+       (length(d.ancestors) - nvl(length(replace(d.ancestors, ',', '')), 0)) - (length(a.ancestors) - nvl(length(replace(a.ancestors, ',', '')), 0))
+from sys_dept d
+    inner join sys_dept a on instr(',' || d.ancestors || ',', ',' || a.dept_id || ',') <> 0
+where d.del_flag = '0' and a.del_flag = '0';
+
+
 -- ----------------------------
 -- 2、用户信息表
 -- ----------------------------
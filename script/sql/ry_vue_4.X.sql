@@ -35,6 +35,28 @@ insert into sys_dept values(108,  102, '0,100,102',  '市场部门',   1, '若
 insert into sys_dept values(109,  102, '0,100,102',  '财务部门',   2, '若依', '15888888888', 'ry@qq.com', '0', '0', 'admin', sysdate(), '', null);
 
 
+-- ----------------------------
+-- 部门闭包表（部门与全部上级部门的关系 含自身）
+-- ----------------------------
+drop table if exists sys_dept_closure;
+create table sys_dept_closure (
+  ancestor_id       bigint(20)      not null                   comment '祖先部门id',
+  descendant_id     bigint(20)      not null                   comment '后代部门id',
+  depth             int(4)          default 0                  comment '层级距离（0代表自身）',
+  primary key (ancestor_id, descendant_id),
+  key idx_sys_dept_closure_d (descendant_id)
+) engine=innodb comment = '部门闭包表';
+
+insert into sys_dept_closure (ancestor_id, descendant_id, depth)
+select d.dept_id, d.dept_id, 0 from sys_dept d where d.del_flag = '0';
+insert into sys_dept_closure (ancestor_id, descendant_id, depth)
+select a.dept_id, d.dept_id,
+       (length(d.ancestors) - length(replace(d.ancestors, ',', ''))) - (length(a.ancestors) - length(replace(a.ancestors, ',', '')))
+from sys_dept d
+    inner join sys_dept a on find_in_set(a.dept_id, d.ancestors) <> 0
+where d.del_flag = '0' and a.del_flag = '0';
+
+
 -- ----------------------------
 -- 2、用户信息表
 -- ----------------------------
@@ -0,0 +1,27 @@
+-- ----------------------------
+-- 部门闭包表（部门与全部上级部门的关系 含自身）
+-- ----------------------------
+drop table if exists sys_dept_closure;
+create table if not exists sys_dept_closure
+(
+    ancestor_id   int8 not null,
+    descendant_id int8 not null,
+    depth         int4 default 0,
+    constraint sys_dept_closure_pk primary key (ancestor_id, descendant_id)
+);
+
+create index idx_sys_dept_closure_d ON sys_dept_closure (descendant_id);
+
+comment on table sys_dept_closure is '部门闭包表';
+comment on column sys_dept_closure.ancestor_id is '祖先部门id';
+comment on column sys_dept_closure.descendant_id is '后代部门id';
+comment on column sys_dept_closure.depth is '层级距离（0代表自身）';
+
+insert into sys_dept_closure (ancestor_id, descendant_id, depth)
+select d.dept_id, d.dept_id, 0 from sys_dept d where d.del_flag = '0';
+insert into sys_dept_closure (ancestor_id, descendant_id, depth)
+select a.dept_id, d.dept_id,
+       (length(d.ancestors) - length(replace(d.ancestors, ',', ''))) - (length(a.ancestors) - length(replace(a.ancestors, ',', '')))
+from sys_dept d
+    inner join sys_dept a on position(',' || a.dept_id || ',' in ',' || d.ancestors || ',') <> 0
+where d.del_flag = '0' and a.del_flag = '0';
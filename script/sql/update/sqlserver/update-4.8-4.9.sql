@@ -0,0 +1,49 @@
+CREATE TABLE sys_dept_closure
+(
+    ancestor_id   bigint         NOT NULL,
+    descendant_id bigint         NOT NULL,
+    depth         int DEFAULT ((0)) NULL,
+    CONSTRAINT PK__sys_dept_closure PRIMARY KEY CLUSTERED (ancestor_id, descendant_id)
+        WITH (PAD_INDEX = OFF, STATISTICS_NORECOMPUTE = OFF, IGNORE_DUP_KEY = OFF, ALLOW_ROW_LOCKS = ON, ALLOW_PAGE_LOCKS = ON)
+        ON [PRIMARY]
+)
+ON [PRIMARY]
+GO
+
+CREATE NONCLUSTERED INDEX idx_sys_dept_closure_d ON sys_dept_closure (descendant_id)
+GO
+
+EXEC sys.sp_addextendedproperty
+    'MS_Description', N'祖先部门id' ,
+    'SCHEMA', N'dbo',
+    'TABLE', N'sys_dept_closure',
+    'COLUMN', N'ancestor_id'
+GO
+EXEC sys.sp_addextendedproperty
+    'MS_Description', N'后代部门id' ,
+    'SCHEMA', N'dbo',
+    'TABLE', N'sys_dept_closure',
+    'COLUMN', N'descendant_id'
+GO
+EXEC sys.sp_addextendedproperty
+    'MS_Description', N'层级距离（0代表自身）' ,
+    'SCHEMA', N'dbo',
+    'TABLE', N'sys_dept_closure',
+    'COLUMN', N'depth'
+GO
+EXEC sys.sp_addextendedproperty
+    'MS_Description', N'部门闭包表' ,
+    'SCHEMA', N'dbo',
+    'TABLE', N'sys_dept_closure'
+GO
+
+INSERT INTO sys_dept_closure (ancestor_id, descendant_id, depth)
+SELECT d.dept_id, d.dept_id, 0 FROM sys_dept d WHERE d.del_flag = N'0'
+GO
+INSERT INTO sys_dept_closure (ancestor_id, descendant_id, depth)
+SELECT a.dept_id, d.dept_id,
+       (len(d.ancestors) - len(replace(d.ancestors, N',', N''))) - (len(a.ancestors) - len(replace(a.ancestors, N',', N'')))
+FROM sys_dept d
+    INNER JOIN sys_dept a ON charindex(N',' + cast(a.dept_id AS nvarchar(20)) + N',', N',' + d.ancestors + N',') <> 0
+WHERE d.del_flag = N'0' AND a.del_flag = N'0'
+GO